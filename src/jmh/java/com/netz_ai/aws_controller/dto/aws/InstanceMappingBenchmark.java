@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.aws;
+
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.InstanceStateName;
+import software.amazon.awssdk.services.ec2.model.Tag;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SDK {@link Instance} to the REST response DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceMappingBenchmark {
+    Instance instance;
+
+    @Setup
+    public void setup() {
+        instance = Instance.builder()
+                .instanceId("i-0123456789abcdef0")
+                .instanceType("t2.micro")
+                .imageId("ami-0abcdef1234567890")
+                .state(s -> s.name(InstanceStateName.RUNNING).code(16))
+                .publicDnsName("ec2-203-0-113-25.compute-1.amazonaws.com")
+                .publicIpAddress("203.0.113.25")
+                .launchTime(Instant.parse("2025-01-01T00:00:00Z"))
+                .tags(Tag.builder().key("env").value("bench").build(),
+                        Tag.builder().key("team").value("platform").build(),
+                        Tag.builder().key("Name").value("bench-web-1").build())
+                .build();
+    }
+
+    @Benchmark
+    public CreateAndWaitResponse createAndWaitResponse() {
+        return CreateAndWaitResponse.from(instance);
+    }
+
+    @Benchmark
+    public InstanceStateResponse instanceStateResponse() {
+        return InstanceStateResponse.from(instance);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.ec2.model.RunInstancesRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CreateEc2Request} to {@link RunInstancesRequest}, including Base64 encoding of the user data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunInstancesRequestBenchmark {
+
+    /** Size of the plain-text user data script in bytes; 16 KB is the EC2 limit. */
+    @Param({"0", "1024", "16384"})
+    int userDataBytes;
+
+    CreateEc2Request req;
+
+    @Setup
+    public void setup() {
+        req = new CreateEc2Request();
+        req.setName("bench-web-1");
+        req.setKeyName("bench-key");
+        req.setInstanceType("t3.micro");
+        req.setSecurityGroups(List.of("sg-0123456789abcdef0", "sg-0fedcba9876543210"));
+        StringBuilder script = new StringBuilder("#!/bin/bash\nset -euo pipefail\n");
+        while (script.length() < userDataBytes) {
+            script.append("yum install -y httpd && systemctl enable --now httpd\n");
+        }
+        req.setUserData(userDataBytes == 0 ? null : script.substring(0, userDataBytes));
+    }
+
+    @Benchmark
+    public RunInstancesRequest build() {
+        return Ec2Requests.runInstances(
+                "ami-0abcdef1234567890",
+                Optional.ofNullable(req.getName()),
+                Optional.ofNullable(req.getKeyName()),
+                Optional.ofNullable(req.getInstanceType()),
+                Optional.ofNullable(req.getUserData()),
+                Optional.ofNullable(req.getSecurityGroups()),
+                Map.of("env", "bench"),
+                1, 1).build();
+    }
+}
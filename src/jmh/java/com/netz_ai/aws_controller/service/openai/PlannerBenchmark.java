@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.openai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planner hot paths around the model call: prompt formatting and parsing the model output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlannerBenchmark {
+    static final String QUERY = "A web server with httpd on a t3.micro and a MariaDB database called shop";
+
+    static final String LLM_OUTPUT = """
+            {
+              "name": "web-1",
+              "keyName": "",
+              "useAl2023": true,
+              "instanceType": "t3.micro",
+              "securityGroups": [],
+              "userData": "#!/bin/bash\\nset -euo pipefail\\nyum update -y\\nyum install -y httpd mariadb-server\\nsystemctl enable --now httpd\\nsystemctl enable --now mariadb\\necho '<h1>web-1</h1>' > /var/www/html/index.html\\nmysql -e \\"CREATE DATABASE IF NOT EXISTS shop;\\"\\n"
+            }
+            """;
+
+    // Same configuration as a plain Spring Boot ObjectMapper for this DTO
+    ObjectMapper objectMapper;
+    ObjectReader reader;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        reader = objectMapper.readerFor(CreateEc2Request.class);
+    }
+
+    @Benchmark
+    public String getPrompt() {
+        return OpenAIAWSControllerService.getPrompt(QUERY);
+    }
+
+    @Benchmark
+    public CreateEc2Request parseWithObjectMapper() throws Exception {
+        return objectMapper.readValue(LLM_OUTPUT, CreateEc2Request.class);
+    }
+
+    @Benchmark
+    public CreateEc2Request parseWithReader() throws Exception {
+        return reader.readValue(LLM_OUTPUT);
+    }
+}
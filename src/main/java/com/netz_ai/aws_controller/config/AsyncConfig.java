@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Application executors. With {@code spring.threads.virtual.enabled=true} (virtual-thread mode) Spring Boot runs
+ * Tomcat requests on virtual threads, and every executor and scheduler below creates virtual threads as well; pool
+ * sizes then only bound concurrency, not platform threads. {@code @Scheduled} tasks run on {@link #taskScheduler},
+ * never on the instance-state poller's {@code awsWaiterScheduler}.
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Executor for blocking work started by background jobs (e.g. the OpenAI planning step).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor jobExecutor(
+            @Value("${aws.jobs.threads:8}") int threads,
+            @Value("${aws.jobs.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("launch-job-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.setVirtualThreads(virtualThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor relaying streamed OpenAI completions to SSE clients; each stream holds a thread until the model finishes.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor openAiStreamExecutor(
+            @Value("${openai.stream.threads:16}") int threads,
+            @Value("${openai.stream.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("openai-stream-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.setVirtualThreads(virtualThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for fan-out AWS calls such as the chunks of a bulk terminate; its size bounds their parallelism.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor awsBulkExecutor(
+            @Value("${aws.bulk.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("aws-bulk-");
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.setVirtualThreads(virtualThreads);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Scheduler for {@code @Scheduled} methods. Boot's own backs off because {@code awsWaiterScheduler} is a
+     * {@code ScheduledExecutorService}; the bean name {@code taskScheduler} is what the scheduling infrastructure looks
+     * up, so periodic flushes and purges never queue behind the poller's blocking ticks.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:4}") int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setPoolSize(threads);
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        scheduler.setVirtualThreads(virtualThreads);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Replaces Boot's default executor (which backs off because the executors above exist); Spring MVC uses it for
+     * async processing such as StreamingResponseBody. Unbounded virtual threads in virtual-thread mode, a pool otherwise.
+     */
+    @Bean
+    public AsyncTaskExecutor applicationTaskExecutor(@Value("${spring.task.execution.pool.max-size:32}") int threads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("task-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("task-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(1000);
+        executor.initialize();
+        return executor;
+    }
+}
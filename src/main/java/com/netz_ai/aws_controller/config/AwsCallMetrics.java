@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Reports what the SDK retry strategy does per service and operation:
+ * {@code aws.client.attempts} (HTTP attempts per call, so retries show as values above 1) and
+ * {@code aws.client.throttled} (calls that still failed throttled after all retries).
+ */
+@Component
+@RequiredArgsConstructor
+public class AwsCallMetrics implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("AwsCallMetrics.attempts");
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        attributes.putAttribute(ATTEMPTS, 0);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes attributes) {
+        Integer attempts = attributes.getAttribute(ATTEMPTS);
+        attributes.putAttribute(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        record(attributes, false);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        record(attributes, context.exception() instanceof AwsServiceException e && e.isThrottlingException());
+    }
+
+    private void record(ExecutionAttributes attributes, boolean throttled) {
+        Integer attempts = attributes.getAttribute(ATTEMPTS);
+        String service = String.valueOf(attributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME));
+        String operation = String.valueOf(attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+        if (attempts != null && attempts > 0) {
+            DistributionSummary.builder("aws.client.attempts")
+                    .tag("service", service).tag("operation", operation)
+                    .register(meterRegistry)
+                    .record(attempts);
+        }
+        if (throttled) {
+            Counter.builder("aws.client.throttled")
+                    .tag("service", service).tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -16,34 +16,194 @@
 package com.netz_ai.aws_controller.config;
 
 
+import com.netz_ai.aws_controller.properties.AwsProps;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+import software.amazon.awssdk.services.ec2.Ec2AsyncClient;
 import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.services.ssm.SsmAsyncClient;
 import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.sts.StsClient;
+
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Configuration
 @RequiredArgsConstructor
 public class AwsClientConfig {
-    @Value("${aws.region}")
-    private String region;
+    // Continuations are non-blocking, so complete futures on the I/O threads
+    // instead of handing them to the SDK's default completion thread pool.
+    static final Consumer<ClientAsyncConfiguration.Builder> COMPLETE_ON_IO_THREADS =
+            b -> b.advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR, Runnable::run);
+
+    private final AwsProps awsProps;
+    private final AwsCallMetrics callMetrics;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * One HTTP transport shared by every synchronous AWS client, instead of a default pool per client.
+     */
     @Bean
-    public Ec2Client ec2Client() {
-        return Ec2Client.builder()
-                .region(Region.of(region))
-                .credentialsProvider(DefaultCredentialsProvider.create())
+    public SdkHttpClient awsHttpClient() {
+        AwsProps.Http http = awsProps.getHttp();
+        return switch (http.getClient()) {
+            case APACHE -> ApacheHttpClient.builder()
+                    .maxConnections(http.getMaxConnections())
+                    .connectionTimeout(http.getConnectionTimeout())
+                    .socketTimeout(http.getSocketTimeout())
+                    .connectionAcquisitionTimeout(http.getConnectionAcquisitionTimeout())
+                    .connectionTimeToLive(http.getConnectionTtl())
+                    .connectionMaxIdleTime(http.getConnectionMaxIdleTime())
+                    .useIdleConnectionReaper(http.isUseIdleConnectionReaper())
+                    .tcpKeepAlive(http.isTcpKeepAlive())
+                    .build();
+            // No pool of its own; relies on the JDK keep-alive cache and has the smallest footprint
+            case URL_CONNECTION -> UrlConnectionHttpClient.builder()
+                    .connectionTimeout(http.getConnectionTimeout())
+                    .socketTimeout(http.getSocketTimeout())
+                    .build();
+            case CRT -> AwsCrtHttpClient.builder()
+                    .maxConcurrency(http.getMaxConnections())
+                    .connectionTimeout(http.getConnectionTimeout())
+                    .connectionMaxIdleTime(http.getConnectionMaxIdleTime())
+                    .build();
+        };
+    }
+
+    /**
+     * One HTTP transport shared by every asynchronous AWS client.
+     */
+    @Bean
+    public SdkAsyncHttpClient awsAsyncHttpClient() {
+        AwsProps.Http http = awsProps.getHttp();
+        return switch (http.getAsyncClient()) {
+            case NETTY -> NettyNioAsyncHttpClient.builder()
+                    .maxConcurrency(http.getMaxConnections())
+                    .maxPendingConnectionAcquires(http.getMaxPendingConnectionAcquires())
+                    .connectionTimeout(http.getConnectionTimeout())
+                    .readTimeout(http.getSocketTimeout())
+                    .writeTimeout(http.getSocketTimeout())
+                    .connectionAcquisitionTimeout(http.getConnectionAcquisitionTimeout())
+                    .connectionTimeToLive(http.getConnectionTtl())
+                    .connectionMaxIdleTime(http.getConnectionMaxIdleTime())
+                    .useIdleConnectionReaper(http.isUseIdleConnectionReaper())
+                    .tcpKeepAlive(http.isTcpKeepAlive())
+                    .build();
+            case CRT -> AwsCrtAsyncHttpClient.builder()
+                    .maxConcurrency(http.getMaxConnections())
+                    .connectionTimeout(http.getConnectionTimeout())
+                    .connectionMaxIdleTime(http.getConnectionMaxIdleTime())
+                    .build();
+        };
+    }
+
+    /**
+     * Clients for the default region ({@code aws.region}); other regions are served by {@link AwsClientRegistry}.
+     */
+    @Bean
+    public Ec2Client ec2Client(SdkHttpClient awsHttpClient) {
+        return configure(Ec2Client.builder())
+                .httpClient(awsHttpClient)
                 .build();
     }
 
     @Bean
-    public SsmClient ssmClient() {
-        return SsmClient.builder()
-                .region(Region.of(region))
-                .credentialsProvider(DefaultCredentialsProvider.create())
+    public SsmClient ssmClient(SdkHttpClient awsHttpClient) {
+        return configure(SsmClient.builder())
+                .httpClient(awsHttpClient)
+                .build();
+    }
+
+    @Bean
+    public StsClient stsClient(SdkHttpClient awsHttpClient) {
+        return configure(StsClient.builder())
+                .httpClient(awsHttpClient)
+                .build();
+    }
+
+    @Bean
+    public Ec2AsyncClient ec2AsyncClient(SdkAsyncHttpClient awsAsyncHttpClient) {
+        return configure(Ec2AsyncClient.builder())
+                .httpClient(awsAsyncHttpClient)
+                .asyncConfiguration(COMPLETE_ON_IO_THREADS)
+                .build();
+    }
+
+    @Bean
+    public SsmAsyncClient ssmAsyncClient(SdkAsyncHttpClient awsAsyncHttpClient) {
+        return configure(SsmAsyncClient.builder())
+                .httpClient(awsAsyncHttpClient)
+                .asyncConfiguration(COMPLETE_ON_IO_THREADS)
                 .build();
     }
+
+    /**
+     * Shared scheduler that drives the instance-state poller, so waits do not spin up their own executors. Reserved
+     * for the poller: {@code @Scheduled} methods run on {@link AsyncConfig#taskScheduler}.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService awsWaiterScheduler(@Value("${aws.waiter.threads:2}") int threads) {
+        if (virtualThreads) {
+            return Executors.newScheduledThreadPool(threads, Thread.ofVirtual().name("aws-waiter-", 1).factory());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "aws-waiter-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private <B extends AwsClientBuilder<B, ?>> B configure(B builder) {
+        return configure(builder, Region.of(awsProps.getRegion()), awsProps, callMetrics);
+    }
+
+    static <B extends AwsClientBuilder<B, ?>> B configure(B builder,
+                                                          Region region,
+                                                          AwsProps awsProps,
+                                                          AwsCallMetrics callMetrics) {
+        builder.region(region)
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .overrideConfiguration(o -> o
+                        .retryStrategy(retryStrategy(awsProps.getRetry()))
+                        .addExecutionInterceptor(callMetrics));
+        if (StringUtils.hasText(awsProps.getEndpointOverride())) {
+            builder.endpointOverride(URI.create(awsProps.getEndpointOverride()));
+        }
+        return builder;
+    }
+
+    // A strategy per client: the adaptive token bucket should only slow down the client that is being throttled
+    private static RetryStrategy retryStrategy(AwsProps.Retry retry) {
+        return switch (retry.getMode()) {
+            case STANDARD -> AwsRetryStrategy.standardRetryStrategy().toBuilder()
+                    .maxAttempts(retry.getMaxAttempts())
+                    .build();
+            case ADAPTIVE -> AwsRetryStrategy.adaptiveRetryStrategy().toBuilder()
+                    .maxAttempts(retry.getMaxAttempts())
+                    .build();
+        };
+    }
 }
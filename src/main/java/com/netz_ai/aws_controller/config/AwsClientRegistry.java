@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netz_ai.aws_controller.properties.AwsProps;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.Ec2AsyncClient;
+import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.services.ssm.SsmAsyncClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AWS clients per region, so one deployment can work in many regions at once.
+ * <ul>
+ *     <li>The default region ({@code aws.region}) is served by the application's client beans.</li>
+ *     <li>Other regions get EC2 / SSM clients on first use, built on the shared HTTP transports, so a new
+ *     region adds no connection pool or I/O threads of its own.</li>
+ *     <li>At most {@code aws.regions.max-clients} regions are kept open; clients unused for
+ *     {@code aws.regions.idle-timeout} are closed.</li>
+ * </ul>
+ * Metrics are published as {@code cache.*{cache=aws.region-clients}}.
+ */
+@Slf4j
+@Component
+public class AwsClientRegistry {
+    // evicted clients may still be in use by a request that looked them up just before
+    private static final Duration CLOSE_DELAY = Duration.ofMinutes(2);
+
+    private final AwsProps awsProps;
+    private final SdkHttpClient awsHttpClient;
+    private final SdkAsyncHttpClient awsAsyncHttpClient;
+    private final AwsCallMetrics callMetrics;
+    private final RegionClients defaultClients;
+    private final Cache<Region, RegionClients> clients;
+    private volatile boolean closing;
+
+    public AwsClientRegistry(AwsProps awsProps,
+                             SdkHttpClient awsHttpClient,
+                             SdkAsyncHttpClient awsAsyncHttpClient,
+                             AwsCallMetrics callMetrics,
+                             Ec2Client ec2Client,
+                             Ec2AsyncClient ec2AsyncClient,
+                             SsmAsyncClient ssmAsyncClient,
+                             MeterRegistry meterRegistry) {
+        this.awsProps = awsProps;
+        this.awsHttpClient = awsHttpClient;
+        this.awsAsyncHttpClient = awsAsyncHttpClient;
+        this.callMetrics = callMetrics;
+        this.defaultClients = new RegionClients(Region.of(awsProps.getRegion()), ec2Client, ec2AsyncClient, ssmAsyncClient);
+        AwsProps.Regions regions = awsProps.getRegions();
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(regions.getMaxClients())
+                .expireAfterAccess(regions.getIdleTimeout())
+                .executor(Runnable::run)
+                .<Region, RegionClients>removalListener((region, evicted, cause) -> retire(evicted))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, clients, "aws.region-clients");
+    }
+
+    public Region defaultRegion() {
+        return defaultClients.region();
+    }
+
+    /**
+     * Region named by a request, or the default region when none is given.
+     * @throws ResponseStatusException 400 if the SDK does not know the region or {@code aws.regions.allowed} excludes it
+     */
+    public Region resolve(Optional<String> name) {
+        if (name.isEmpty() || name.get().isBlank()) {
+            return defaultRegion();
+        }
+        Region region = Region.of(name.get().trim().toLowerCase(Locale.ROOT));
+        if (region.equals(defaultRegion())) {
+            return region;
+        }
+        List<String> allowed = awsProps.getRegions().getAllowed();
+        boolean supported = allowed.isEmpty() ? Region.regions().contains(region) : allowed.contains(region.id());
+        if (!supported) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported region: " + name.get());
+        }
+        return region;
+    }
+
+    public RegionClients clients(Region region) {
+        if (region.equals(defaultRegion())) {
+            return defaultClients;
+        }
+        return clients.get(region, this::create);
+    }
+
+    public Ec2Client ec2(Region region) {
+        return clients(region).ec2();
+    }
+
+    public Ec2AsyncClient ec2Async(Region region) {
+        return clients(region).ec2Async();
+    }
+
+    public SsmAsyncClient ssmAsync(Region region) {
+        return clients(region).ssmAsync();
+    }
+
+    @PreDestroy
+    void close() {
+        closing = true;
+        clients.invalidateAll();
+        clients.cleanUp();
+    }
+
+    private RegionClients create(Region region) {
+        log.info("Creating AWS clients for region {}", region.id());
+        return new RegionClients(region,
+                AwsClientConfig.configure(Ec2Client.builder(), region, awsProps, callMetrics)
+                        .httpClient(awsHttpClient)
+                        .build(),
+                AwsClientConfig.configure(Ec2AsyncClient.builder(), region, awsProps, callMetrics)
+                        .httpClient(awsAsyncHttpClient)
+                        .asyncConfiguration(AwsClientConfig.COMPLETE_ON_IO_THREADS)
+                        .build(),
+                AwsClientConfig.configure(SsmAsyncClient.builder(), region, awsProps, callMetrics)
+                        .httpClient(awsAsyncHttpClient)
+                        .asyncConfiguration(AwsClientConfig.COMPLETE_ON_IO_THREADS)
+                        .build());
+    }
+
+    private void retire(RegionClients evicted) {
+        if (evicted == null) {
+            return;
+        }
+        log.info("Closing AWS clients for region {}", evicted.region().id());
+        if (closing) {
+            evicted.close();
+        } else {
+            CompletableFuture.delayedExecutor(CLOSE_DELAY.toMillis(), TimeUnit.MILLISECONDS).execute(evicted::close);
+        }
+    }
+
+    /**
+     * Clients of one region. Closing them leaves the shared HTTP transports open.
+     */
+    public record RegionClients(Region region, Ec2Client ec2, Ec2AsyncClient ec2Async, SsmAsyncClient ssmAsync) {
+        void close() {
+            ec2.close();
+            ec2Async.close();
+            ssmAsync.close();
+        }
+    }
+}
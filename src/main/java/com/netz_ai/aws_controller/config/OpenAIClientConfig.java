@@ -15,6 +15,7 @@
 
 package com.netz_ai.aws_controller.config;
 
+import com.netz_ai.aws_controller.properties.OpenAiProperties;
 import com.openai.client.OpenAIClient;
 import com.openai.client.okhttp.OpenAIOkHttpClient;
 import lombok.extern.slf4j.Slf4j;
@@ -22,20 +23,33 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Slf4j
 @Configuration
 public class OpenAIClientConfig {
+    private static final String DEFAULT_BASE_URL = "https://api.openai.com/v1";
 
+    /**
+     * Concurrency and rate limits are applied in front of this client by
+     * {@link com.netz_ai.aws_controller.service.openai.OpenAiLimiter}; the OkHttp client itself only
+     * carries the base URL, per-request timeout and SDK retry count from {@link OpenAiProperties}.
+     */
     @Bean
     public OpenAIClient openAIClient(
             @Value("${openai.api-key}") String apiKey,
-            @Value("${openai.base-url}") String baseUrl
+            OpenAiProperties properties
     ) {
-        log.debug("OpenAI API Key: {}", apiKey);
+        String baseUrl = properties.getBaseUrl() == null || properties.getBaseUrl().isBlank()
+                ? DEFAULT_BASE_URL : properties.getBaseUrl();
         log.debug("OpenAI API URL: {}", baseUrl);
-        return OpenAIOkHttpClient.builder()
+        OpenAIOkHttpClient.Builder builder = OpenAIOkHttpClient.builder()
                 .apiKey(apiKey)
-                .baseUrl("https://api.openai.com/v1")   // e.g. https://api.openai.com/v1
-                .build();
+                .baseUrl(baseUrl)   // e.g. https://api.openai.com/v1
+                .maxRetries(properties.getMaxRetries());
+        if (properties.getTimeoutSeconds() > 0) {
+            builder.timeout(Duration.ofSeconds(properties.getTimeoutSeconds()));
+        }
+        return builder.build();
     }
 }
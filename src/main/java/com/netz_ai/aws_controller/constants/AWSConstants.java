@@ -18,4 +18,6 @@ package com.netz_ai.aws_controller.constants;
 public class AWSConstants {
     public static final String BASE_URL = "/api/v1/aws";
     public static final String BASE_URL_EC2 = BASE_URL + "/ec2";
+    public static final String BASE_URL_EC2_ASYNC = BASE_URL_EC2 + "/async";
+    public static final String BASE_URL_EC2_JOBS = BASE_URL_EC2 + "/jobs";
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.controller.aws;
+
+import com.netz_ai.aws_controller.dto.aws.*;
+import com.netz_ai.aws_controller.service.aws.Ec2AsyncService;
+import com.netz_ai.aws_controller.service.aws.IdempotentLaunches;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.services.ec2.model.Ec2Exception;
+import software.amazon.awssdk.services.ec2.model.InstanceStateChange;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.netz_ai.aws_controller.constants.AWSConstants.BASE_URL_EC2_ASYNC;
+
+/**
+ * Non-blocking variants of the {@link Ec2Controller} endpoints. Each handler returns a
+ * {@link CompletableFuture}, so the servlet thread is released while EC2 is working. Waits are capped at 300 seconds,
+ * a minute below the default {@code spring.mvc.async.request-timeout} (PT6M): the launch or terminate call before the
+ * wait has room to finish, so the service's 408 is returned rather than the container's 503.
+ */
+@RestController
+@RequestMapping(BASE_URL_EC2_ASYNC)
+@RequiredArgsConstructor
+@Tag(name = "EC2 (async)", description = "Non-blocking endpoints to manage EC2 instances")
+public class Ec2AsyncController {
+    private final Ec2AsyncService ec2AsyncService;
+    private final IdempotentLaunches idempotentLaunches;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Create a free-tier EC2 instance (non-blocking)")
+    public CompletableFuture<CreateEc2Response> create(@Valid @RequestBody CreateEc2Request req) {
+        return idempotentLaunches.execute("ec2.create", req.getIdempotencyKey(), req, () ->
+                ec2AsyncService.createEc2Instance(
+                                Optional.ofNullable(req.getRegion()),
+                                Optional.ofNullable(req.getName()),
+                                Optional.ofNullable(req.getKeyName()),
+                                req.getUseAl2023() == null || req.getUseAl2023(),
+                                Optional.ofNullable(req.getAmiId()),
+                                Optional.ofNullable(req.getInstanceType()),
+                                Optional.ofNullable(req.getUserData()),
+                                Optional.ofNullable(req.getSecurityGroups()),
+                                Optional.ofNullable(req.getIdempotencyKey()))
+                        .thenApply(run -> CreateEc2Response.from(run.instances().getFirst())));
+    }
+
+    @PostMapping("/wait-running")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Create an EC2 instance and wait until it is running (non-blocking)",
+            description = """
+                Same contract as the blocking endpoint, but no request thread is held while waiting.
+                - Parameters:
+                  * timeoutSeconds (default 300, max 300) - total time to wait
+                  * pollSeconds (default 5) - polling interval
+                """)
+    public CompletableFuture<CreateAndWaitResponse> createAndWait(
+            @Valid @RequestBody CreateEc2Request req,
+            @RequestParam(defaultValue = "300") @Min(1) @Max(300) int timeoutSeconds,
+            @RequestParam(defaultValue = "5")   @Min(1) int pollSeconds) {
+
+        return idempotentLaunches.execute("ec2.wait-running", req.getIdempotencyKey(), req, () ->
+                ec2AsyncService.createAndWaitRunning(
+                                Optional.ofNullable(req.getRegion()),
+                                Optional.ofNullable(req.getName()),
+                                Optional.ofNullable(req.getKeyName()),
+                                req.getUseAl2023() == null || req.getUseAl2023(),
+                                Optional.ofNullable(req.getAmiId()),
+                                Optional.ofNullable(req.getInstanceType()),
+                                Optional.ofNullable(req.getUserData()),
+                                Optional.ofNullable(req.getSecurityGroups()),
+                                Optional.ofNullable(req.getIdempotencyKey()),
+                                Duration.ofSeconds(timeoutSeconds),
+                                Duration.ofSeconds(pollSeconds))
+                        .thenApply(CreateAndWaitResponse::from));
+    }
+
+    @GetMapping("/{instanceId}/state")
+    @Operation(summary = "Get current EC2 state (non-blocking)")
+    public CompletableFuture<InstanceStateResponse> getState(
+            @PathVariable String instanceId,
+            @RequestParam(required = false) String region) {
+        return ec2AsyncService.describeInstance(Optional.ofNullable(region), instanceId)
+                .thenApply(InstanceStateResponse::from)
+                .exceptionally(Ec2AsyncController::rethrowNotFound);
+    }
+
+    @GetMapping("/{instanceId}/wait-running")
+    @Operation(summary = "Wait until instance is running (non-blocking)")
+    public CompletableFuture<InstanceStateResponse> waitUntilRunning(
+            @PathVariable String instanceId,
+            @RequestParam(required = false) String region,
+            @RequestParam(defaultValue = "300") @Min(1) @Max(300) int timeoutSeconds,
+            @RequestParam(defaultValue = "5")  @Min(1) int pollSeconds) {
+
+        return ec2AsyncService.waitUntilRunning(
+                        Optional.ofNullable(region),
+                        instanceId,
+                        Duration.ofSeconds(timeoutSeconds),
+                        Duration.ofSeconds(pollSeconds))
+                .thenApply(InstanceStateResponse::from)
+                .exceptionally(Ec2AsyncController::rethrowNotFound);
+    }
+
+    @DeleteMapping("/{instanceId}")
+    @Operation(summary = "Terminate an EC2 instance (non-blocking)",
+            description = "Terminates the instance. If wait=true, the response completes once the instance is 'terminated'.")
+    public CompletableFuture<TerminateEc2Response> delete(
+            @PathVariable String instanceId,
+            @RequestParam(required = false) String region,
+            @RequestParam(defaultValue = "false") boolean wait,
+            @RequestParam(defaultValue = "300") @Min(1) @Max(300) int timeoutSeconds,
+            @RequestParam(defaultValue = "5")   @Min(1) int pollSeconds) {
+
+        return ec2AsyncService.terminateInstance(Optional.ofNullable(region), instanceId)
+                .thenCompose(resp -> {
+                    InstanceStateChange change = resp.terminatingInstances().getFirst();
+                    TerminateEc2Response.TerminateEc2ResponseBuilder builder = TerminateEc2Response.builder()
+                            .instanceId(instanceId)
+                            .previousState(change.previousState() != null ? change.previousState().nameAsString() : null)
+                            .currentState(change.currentState() != null ? change.currentState().nameAsString() : null);
+                    if (!wait) {
+                        return CompletableFuture.completedFuture(builder.build());
+                    }
+                    return ec2AsyncService.waitUntilTerminated(
+                                    Optional.ofNullable(region),
+                                    instanceId,
+                                    Duration.ofSeconds(timeoutSeconds),
+                                    Duration.ofSeconds(pollSeconds))
+                            .thenApply(finalDesc -> builder.finalState(finalDesc.state().nameAsString()).build());
+                })
+                .exceptionally(Ec2AsyncController::rethrowNotFound);
+    }
+
+    private static <T> T rethrowNotFound(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof Ec2Exception e && e.awsErrorDetails() != null && "InvalidInstanceID.NotFound"
+                .equals(e.awsErrorDetails().errorCode())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Instance not found");
+        }
+        throw ex instanceof CompletionException ce ? ce : new CompletionException(cause);
+    }
+}
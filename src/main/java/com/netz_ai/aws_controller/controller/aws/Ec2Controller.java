@@ -15,18 +15,33 @@
 
 package com.netz_ai.aws_controller.controller.aws;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.netz_ai.aws_controller.dto.aws.*;
+import com.netz_ai.aws_controller.service.aws.BulkTerminateService;
 import com.netz_ai.aws_controller.service.aws.Ec2Service;
+import com.netz_ai.aws_controller.service.aws.IdempotentLaunches;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import software.amazon.awssdk.services.ec2.model.*;
 
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.netz_ai.aws_controller.constants.AWSConstants.BASE_URL_EC2;
@@ -37,7 +52,12 @@ import static com.netz_ai.aws_controller.constants.AWSConstants.BASE_URL_EC2;
 @RequiredArgsConstructor
 @Tag(name = "EC2", description = "Endpoints to manage EC2 instances")
 public class Ec2Controller {
+    private static final int LIST_FLUSH_EVERY = 100;
+
     private final Ec2Service ec2Service;
+    private final BulkTerminateService bulkTerminateService;
+    private final IdempotentLaunches idempotentLaunches;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -46,27 +66,109 @@ public class Ec2Controller {
                 Launches a single Amazon Linux instance (t2.micro) in the default VPC.
                 AMI is resolved automatically via SSM unless you override it.
                 Key pair is optional. If omitted, the instance launches without an SSH key.
+                With an idempotencyKey, retries return the original instance instead of launching another.
                 """)
     public CreateEc2Response create(@Valid @RequestBody CreateEc2Request req) {
-        RunInstancesResponse run = ec2Service.createEc2Instance(
-                Optional.ofNullable(req.getName()),
-                Optional.ofNullable(req.getKeyName()),
-                req.getUseAl2023() == null || req.getUseAl2023(),
-                Optional.ofNullable(req.getAmiId()),
-                Optional.ofNullable(req.getInstanceType()),
-                Optional.ofNullable(req.getUserData()),
-                Optional.ofNullable(req.getSecurityGroups())
-        );
-
-        String instanceId = run.instances().getFirst().instanceId();
-        Instance instance = ec2Service.describeInstance(instanceId);
-
-        return CreateEc2Response.builder()
-                .instanceId(instanceId)
-                .instanceType(instance.instanceTypeAsString())
-                .imageId(instance.imageId())
-                .state(instance.state().nameAsString())
-                .build();
+        return idempotentLaunches.call("ec2.create", req.getIdempotencyKey(), req, () -> {
+            RunInstancesResponse run = ec2Service.createEc2Instance(
+                    Optional.ofNullable(req.getRegion()),
+                    Optional.ofNullable(req.getName()),
+                    Optional.ofNullable(req.getKeyName()),
+                    req.getUseAl2023() == null || req.getUseAl2023(),
+                    Optional.ofNullable(req.getAmiId()),
+                    Optional.ofNullable(req.getInstanceType()),
+                    Optional.ofNullable(req.getUserData()),
+                    Optional.ofNullable(req.getSecurityGroups()),
+                    Optional.ofNullable(req.getIdempotencyKey())
+            );
+
+            // RunInstances already describes the new instance; no follow-up DescribeInstances needed
+            return CreateEc2Response.from(run.instances().getFirst());
+        });
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "List EC2 instances",
+            description = """
+                Streams instances matching the filters as DescribeInstances pages arrive, without buffering the
+                account in memory. 'Accept: application/x-ndjson' yields one JSON object per line, otherwise a
+                JSON array is streamed. Tag selectors are key=value (values for the same key are OR-ed) or a bare
+                key (tag present); different filters are AND-ed.
+                """)
+    public ResponseEntity<StreamingResponseBody> list(
+            @RequestParam(required = false) List<String> state,
+            @RequestParam(required = false) List<String> instanceType,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(defaultValue = "1000") @Min(5) @Max(1000) int pageSize,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        Iterator<Instance> instances = ec2Service.listInstances(state, instanceType, tag, pageSize).iterator();
+        // Fetch the first page before committing the response, so invalid filters still map to an error status
+        instances.hasNext();
+
+        // flushing is batched below instead of after every value
+        ObjectWriter writer = objectMapper.writerFor(InstanceSummary.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.setRootValueSeparator(new SerializedString("\n"));
+                if (!ndjson) {
+                    gen.writeStartArray();
+                }
+                int written = 0;
+                while (instances.hasNext()) {
+                    writer.writeValue(gen, InstanceSummary.from(instances.next()));
+                    if (++written % LIST_FLUSH_EVERY == 0) {
+                        gen.flush();
+                    }
+                }
+                if (ndjson) {
+                    gen.writeRaw('\n');
+                } else {
+                    gen.writeEndArray();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @PostMapping("/fleet")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Launch a fleet of identical EC2 instances",
+            description = """
+                Launches 'count' identical Amazon Linux instances with a single RunInstances call.
+                - The Name tag and any additional tags are applied in the same call (TagSpecifications).
+                - minCount (default = count) controls how many instances EC2 must be able to launch.
+                - Returns every instance in the reservation without a follow-up describe.
+                - With an idempotencyKey, retries return the original reservation.
+                """)
+    public CreateFleetResponse createFleet(@Valid @RequestBody CreateFleetRequest req) {
+        return idempotentLaunches.call("ec2.fleet", req.getIdempotencyKey(), req, () -> {
+            RunInstancesResponse run = ec2Service.launchFleet(
+                    Optional.ofNullable(req.getRegion()),
+                    req.getCount(),
+                    Optional.ofNullable(req.getMinCount()),
+                    Optional.ofNullable(req.getName()),
+                    Optional.ofNullable(req.getKeyName()),
+                    req.getUseAl2023() == null || req.getUseAl2023(),
+                    Optional.ofNullable(req.getAmiId()),
+                    Optional.ofNullable(req.getInstanceType()),
+                    Optional.ofNullable(req.getUserData()),
+                    Optional.ofNullable(req.getSecurityGroups()),
+                    req.getTags() == null ? Map.of() : req.getTags(),
+                    Optional.ofNullable(req.getIdempotencyKey())
+            );
+
+            return CreateFleetResponse.builder()
+                    .reservationId(run.reservationId())
+                    .requestedCount(req.getCount())
+                    .launchedCount(run.instances().size())
+                    .instances(run.instances().stream().map(CreateEc2Response::from).toList())
+                    .build();
+        });
     }
 
     @PostMapping("/wait-running")
@@ -85,33 +187,23 @@ public class Ec2Controller {
             @RequestParam(defaultValue = "5")   @Min(1) int pollSeconds) {
 
         try {
-            Instance instance = ec2Service.createAndWaitRunning(
-                    Optional.ofNullable(req.getName()),
-                    Optional.ofNullable(req.getKeyName()),
-                    req.getUseAl2023() == null || req.getUseAl2023(),
-                    Optional.ofNullable(req.getAmiId()),
-                    Optional.ofNullable(req.getInstanceType()),
-                    Optional.ofNullable(req.getUserData()),
-                    Optional.of(req.getSecurityGroups()),
-                    Duration.ofSeconds(timeoutSeconds),
-                    Duration.ofSeconds(pollSeconds)
-            );
+            return idempotentLaunches.call("ec2.wait-running", req.getIdempotencyKey(), req, () -> {
+                Instance instance = ec2Service.createAndWaitRunning(
+                        Optional.ofNullable(req.getRegion()),
+                        Optional.ofNullable(req.getName()),
+                        Optional.ofNullable(req.getKeyName()),
+                        req.getUseAl2023() == null || req.getUseAl2023(),
+                        Optional.ofNullable(req.getAmiId()),
+                        Optional.ofNullable(req.getInstanceType()),
+                        Optional.ofNullable(req.getUserData()),
+                        Optional.of(req.getSecurityGroups()),
+                        Optional.ofNullable(req.getIdempotencyKey()),
+                        Duration.ofSeconds(timeoutSeconds),
+                        Duration.ofSeconds(pollSeconds)
+                );
 
-            String nameTag = instance.tags() == null ? null :
-                    instance.tags().stream()
-                            .filter(t -> "Name".equals(t.key()))
-                            .findFirst().map(t -> t.value()).orElse(null);
-
-            return CreateAndWaitResponse.builder()
-                    .instanceId(instance.instanceId())
-                    .state(instance.state().nameAsString())
-                    .instanceType(instance.instanceTypeAsString())
-                    .imageId(instance.imageId())
-                    .publicDnsName(instance.publicDnsName())
-                    .publicIp(instance.publicIpAddress())
-                    .nameTag(nameTag)
-                    .launchTime(instance.launchTime())
-                    .build();
+                return CreateAndWaitResponse.from(instance);
+            });
 
         } catch (Ec2Exception e) {
             throw e; // your global handler (or let Spring return a 4xx/5xx)
@@ -119,18 +211,15 @@ public class Ec2Controller {
     }
 
     @GetMapping("/{instanceId}/state")
-    @Operation(summary = "Get current EC2 state", description = "Returns the current lifecycle state of the instance.")
-    public InstanceStateResponse getState(@PathVariable String instanceId) {
+    @Operation(summary = "Get current EC2 state", description = """
+                Returns the current lifecycle state of the instance. Served from the instance inventory when it was
+                observed within aws.inventory.max-age, otherwise from EC2.
+                """)
+    public InstanceStateResponse getState(
+            @PathVariable String instanceId,
+            @RequestParam(required = false) String region) {
         try {
-            Instance i = ec2Service.describeInstance(instanceId);
-            return InstanceStateResponse.builder()
-                    .instanceId(instanceId)
-                    .state(i.state().nameAsString())
-                    .instanceType(i.instanceTypeAsString())
-                    .imageId(i.imageId())
-                    .publicDnsName(i.publicDnsName())
-                    .publicIp(i.publicIpAddress())
-                    .build();
+            return ec2Service.getInstanceState(Optional.ofNullable(region), instanceId);
         } catch (Ec2Exception e) {
             if (e.awsErrorDetails() != null && "InvalidInstanceID.NotFound"
                     .equals(e.awsErrorDetails().errorCode())) {
@@ -146,23 +235,18 @@ public class Ec2Controller {
             description = "Blocks until the instance reaches 'running' or until the timeout elapses.")
     public InstanceStateResponse waitUntilRunning(
             @PathVariable String instanceId,
+            @RequestParam(required = false) String region,
             @RequestParam(defaultValue = "300") @Min(1) int timeoutSeconds,
             @RequestParam(defaultValue = "5")  @Min(1) int pollSeconds) {
 
         try {
             Instance i = ec2Service.waitUntilRunning(
+                    Optional.ofNullable(region),
                     instanceId,
                     Duration.ofSeconds(timeoutSeconds),
                     Duration.ofSeconds(pollSeconds));
 
-            return InstanceStateResponse.builder()
-                    .instanceId(instanceId)
-                    .state(i.state().nameAsString())
-                    .instanceType(i.instanceTypeAsString())
-                    .imageId(i.imageId())
-                    .publicDnsName(i.publicDnsName())
-                    .publicIp(i.publicIpAddress())
-                    .build();
+            return InstanceStateResponse.from(i);
         } catch (Ec2Exception e) {
             if (e.awsErrorDetails() != null && "InvalidInstanceID.NotFound"
                     .equals(e.awsErrorDetails().errorCode())) {
@@ -180,12 +264,13 @@ public class Ec2Controller {
                 """)
     public TerminateEc2Response delete(
             @PathVariable String instanceId,
+            @RequestParam(required = false) String region,
             @RequestParam(defaultValue = "false") boolean wait,
             @RequestParam(defaultValue = "300") @Min(1) int timeoutSeconds,
             @RequestParam(defaultValue = "5")   @Min(1) int pollSeconds) {
 
         try {
-            TerminateInstancesResponse resp = ec2Service.terminateInstance(instanceId);
+            TerminateInstancesResponse resp = ec2Service.terminateInstance(Optional.ofNullable(region), instanceId);
             InstanceStateChange change = resp.terminatingInstances().getFirst();
 
             String prev = change.previousState() != null ? change.previousState().nameAsString() : null;
@@ -194,6 +279,7 @@ public class Ec2Controller {
             String finalState = null;
             if (wait) {
                 Instance finalDesc = ec2Service.waitUntilTerminated(
+                        Optional.ofNullable(region),
                         instanceId,
                         Duration.ofSeconds(timeoutSeconds),
                         Duration.ofSeconds(pollSeconds));
@@ -216,4 +302,19 @@ public class Ec2Controller {
             throw e;
         }
     }
+
+    @PostMapping("/terminate")
+    @Operation(summary = "Terminate many EC2 instances",
+            description = """
+                Terminates the given instance IDs plus every non-terminated instance matching the tag selectors,
+                in TerminateInstances calls of up to 1000 IDs with bounded parallelism. If wait=true, the call
+                blocks until all of them reach 'terminated' (one shared describe loop) or the timeout elapses.
+                Reports previous/current/final state or an error per instance.
+                """)
+    public BulkTerminateResponse bulkTerminate(
+            @Valid @RequestBody BulkTerminateRequest req,
+            @RequestParam(defaultValue = "false") boolean wait,
+            @RequestParam(defaultValue = "300") @Min(1) int timeoutSeconds) {
+        return bulkTerminateService.terminate(req.getInstanceIds(), req.getTags(), wait, Duration.ofSeconds(timeoutSeconds));
+    }
 }
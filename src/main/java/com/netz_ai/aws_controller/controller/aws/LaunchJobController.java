@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.controller.aws;
+
+import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import com.netz_ai.aws_controller.dto.job.LaunchJobStatus;
+import com.netz_ai.aws_controller.service.job.LaunchJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static com.netz_ai.aws_controller.constants.AWSConstants.BASE_URL_EC2_JOBS;
+
+@RestController
+@RequestMapping(BASE_URL_EC2_JOBS)
+@RequiredArgsConstructor
+@Tag(name = "EC2 launch jobs", description = "Background instance launches with status polling and SSE progress")
+public class LaunchJobController {
+    private final LaunchJobService launchJobService;
+
+    @PostMapping
+    @Operation(summary = "Start a background launch",
+            description = """
+                Accepts the same body as the create endpoint and returns 202 with a job ID immediately.
+                Follow progress via GET /jobs/{jobId} or the SSE stream at /jobs/{jobId}/events.
+                With an idempotencyKey, retries return the original job instead of launching another.
+                - Parameters:
+                  * timeoutSeconds (default 300) - how long the job waits for 'running'
+                  * pollSeconds (default 5) - polling interval
+                """)
+    public ResponseEntity<LaunchJobStatus> submit(
+            @Valid @RequestBody CreateEc2Request req,
+            @RequestParam(defaultValue = "300") @Min(1) int timeoutSeconds,
+            @RequestParam(defaultValue = "5")   @Min(1) int pollSeconds) {
+        LaunchJobStatus status = launchJobService.submit(
+                req, Duration.ofSeconds(timeoutSeconds), Duration.ofSeconds(pollSeconds));
+        return accepted(status);
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get launch job status", description = "Returns the current phase and, once running, the instance.")
+    public LaunchJobStatus status(@PathVariable String jobId) {
+        return launchJobService.status(jobId);
+    }
+
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream launch job phase transitions",
+            description = "Server-Sent Events stream of 'phase' events. Completes when the job is RUNNING or FAILED.")
+    public SseEmitter events(@PathVariable String jobId) {
+        return launchJobService.subscribe(jobId);
+    }
+
+    private static ResponseEntity<LaunchJobStatus> accepted(LaunchJobStatus status) {
+        return ResponseEntity.accepted()
+                .location(URI.create(BASE_URL_EC2_JOBS + "/" + status.getJobId()))
+                .body(status);
+    }
+}
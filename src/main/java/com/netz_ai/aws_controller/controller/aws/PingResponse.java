@@ -38,9 +38,12 @@ public class PingResponse {
     @Schema(example = "arn:aws:iam::544878568061:user/test")
     String arn;
 
-    @Schema(example = "15")
+    @Schema(example = "15", description = "STS GetCallerIdentity round trip of the (possibly cached) result")
     long latencyMs;
 
+    @Schema(example = "false", description = "True if the identity was served from the short-lived cache")
+    boolean cached;
+
     @Schema(example = "2025-11-08T08:15:30Z")
     String timestamp;
 
@@ -16,16 +16,28 @@
 package com.netz_ai.aws_controller.controller.openai;
 
 import com.netz_ai.aws_controller.dto.aws.CreateAndWaitResponse;
+import com.netz_ai.aws_controller.dto.aws.MultiInstanceLaunchResponse;
+import com.netz_ai.aws_controller.dto.job.LaunchJobStatus;
 import com.netz_ai.aws_controller.dto.openai.PromptRequest;
 import com.netz_ai.aws_controller.dto.openai.PromptResponse;
 import com.netz_ai.aws_controller.service.openai.OpenAIAWSControllerService;
+import com.netz_ai.aws_controller.service.job.LaunchJobService;
 import com.netz_ai.aws_controller.service.openai.OpenAIResponsesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static com.netz_ai.aws_controller.constants.AWSConstants.BASE_URL_EC2_JOBS;
 
 @RestController
 @RequestMapping("/api/v1/openai")
@@ -34,6 +46,7 @@ import org.springframework.web.bind.annotation.*;
 public class OpenAIController {
     private final OpenAIResponsesService service;
     private final OpenAIAWSControllerService openAIAWSControllerService;
+    private final LaunchJobService launchJobService;
 
     @PostMapping("/prompt")
     @ResponseStatus(HttpStatus.OK)
@@ -42,6 +55,16 @@ public class OpenAIController {
         return service.respond(req);
     }
 
+    @PostMapping(value = "/prompt", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Send a prompt and stream the response as it is generated",
+            description = """
+                Selected with 'Accept: text/event-stream'. Emits 'delta' events with content chunks,
+                then a 'done' event with model, finish reason and token usage.
+                """)
+    public SseEmitter promptStream(@Valid @RequestBody PromptRequest req) {
+        return service.stream(req);
+    }
+
     @PostMapping("/aws-controller")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Send a prompt and get a detailed response")
@@ -49,4 +72,39 @@ public class OpenAIController {
         return openAIAWSControllerService.respond(req);
     }
 
+    @PostMapping("/aws-controller/fleet")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Plan and launch several instances from one prompt",
+            description = """
+                One model call plans groups of identical instances with dependency hints
+                (e.g. "3 web servers and a MariaDB"). Each group is one RunInstances call; groups start as soon as
+                the groups they depend on are running, with bounded parallelism, and all instances are awaited
+                together. Returns the outcome per group.
+                """)
+    public MultiInstanceLaunchResponse awsControllerFleet(@Valid @RequestBody PromptRequest req) {
+        return openAIAWSControllerService.respondFleet(req);
+    }
+
+    @PostMapping("/aws-controller/jobs")
+    @Operation(summary = "Plan and launch an instance from a prompt in the background",
+            description = """
+                Returns 202 with a launch job ID immediately. The job plans the instance with the model,
+                then launches it. Follow progress via GET /api/v1/aws/ec2/jobs/{jobId} or its /events SSE stream.
+                With an idempotencyKey, retries return the original job instead of launching another.
+                """)
+    public ResponseEntity<LaunchJobStatus> awsControllerJob(
+            @Valid @RequestBody PromptRequest req,
+            @RequestParam(defaultValue = "300") @Min(1) int timeoutSeconds,
+            @RequestParam(defaultValue = "5")   @Min(1) int pollSeconds) {
+        LaunchJobStatus status = launchJobService.submitPlanned(
+                req.getIdempotencyKey(),
+                req,
+                () -> openAIAWSControllerService.plan(req),
+                Duration.ofSeconds(timeoutSeconds),
+                Duration.ofSeconds(pollSeconds));
+        return ResponseEntity.accepted()
+                .location(URI.create(BASE_URL_EC2_JOBS + "/" + status.getJobId()))
+                .body(status);
+    }
+
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.aws;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkTerminateRequest {
+    @Schema(description = "Optional: instance IDs to terminate",
+            example = "[\"i-0123456789abcdef0\", \"i-0fedcba9876543210\"]")
+    private List<@Pattern(regexp = "i-[a-f0-9]{8,17}", message = "Invalid instance id") String> instanceIds;
+
+    @Schema(description = """
+            Optional: tag selectors; every non-terminated instance matching all of them is terminated.
+            key=value (values for the same key are OR-ed) or a bare key (tag present).
+            """, example = "[\"env=load-test\"]")
+    private List<String> tags;
+
+    @AssertTrue(message = "instanceIds or tags is required")
+    @Schema(hidden = true)
+    public boolean isSelectorPresent() {
+        return (instanceIds != null && !instanceIds.isEmpty()) || (tags != null && !tags.isEmpty());
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.aws;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class BulkTerminateResponse {
+    @Schema(example = "1200", description = "Distinct instances selected by IDs and tags")
+    int requestedCount;
+
+    @Schema(example = "1198", description = "Instances accepted by TerminateInstances")
+    int terminatingCount;
+
+    @Schema(example = "2", description = "Instances that could not be terminated or did not reach 'terminated' in time")
+    int failedCount;
+
+    @Schema(description = "Per-instance outcome")
+    List<TerminateEc2Response> instances;
+}
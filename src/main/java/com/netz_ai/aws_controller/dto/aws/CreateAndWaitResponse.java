@@ -15,9 +15,11 @@
 
 package com.netz_ai.aws_controller.dto.aws;
 
+import com.netz_ai.aws_controller.service.aws.Ec2Requests;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
+import software.amazon.awssdk.services.ec2.model.Instance;
 
 import java.time.Instant;
 
@@ -47,4 +49,17 @@ public class CreateAndWaitResponse {
 
     @Schema(description = "UTC timestamp when the instance launched")
     Instant launchTime;
+
+    public static CreateAndWaitResponse from(Instance instance) {
+        return CreateAndWaitResponse.builder()
+                .instanceId(instance.instanceId())
+                .state(instance.state().nameAsString())
+                .instanceType(instance.instanceTypeAsString())
+                .imageId(instance.imageId())
+                .publicDnsName(instance.publicDnsName())
+                .publicIp(instance.publicIpAddress())
+                .nameTag(Ec2Requests.nameTag(instance))
+                .launchTime(instance.launchTime())
+                .build();
+    }
 }
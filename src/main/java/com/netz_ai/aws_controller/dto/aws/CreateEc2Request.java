@@ -48,4 +48,14 @@ public class CreateEc2Request {
     @Schema(description = "Optional: list of security group IDs (VPC). If omitted, default security group is used.",
             example = "[\"sg-0123456789abcdef0\", \"sg-0fedcba9876543210\"]")
     private List<@Pattern(regexp = "sg-[a-f0-9]{8,17}", message = "Invalid security group id") String> securityGroups;
+
+    @Schema(description = "Optional: AWS region to launch in. Defaults to the configured aws.region.", example = "eu-west-1")
+    @Pattern(regexp = "[a-z]{2}(-[a-z]+)+-\\d+", message = "Invalid region (e.g., eu-west-1)")
+    private String region;
+
+    @Schema(description = "Optional: idempotency key, sent to EC2 as the RunInstances client token. "
+            + "Retrying with the same key returns the original launch instead of launching again.",
+            example = "deploy-4711-web")
+    @Pattern(regexp = "[\\x21-\\x7E]{1,64}", message = "idempotencyKey must be 1..64 printable ASCII characters")
+    private String idempotencyKey;
 }
@@ -18,6 +18,7 @@ package com.netz_ai.aws_controller.dto.aws;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
+import software.amazon.awssdk.services.ec2.model.Instance;
 
 @Value
 @Builder
@@ -33,4 +34,13 @@ public class CreateEc2Response {
 
     @Schema(example = "running")
     String state;
+
+    public static CreateEc2Response from(Instance instance) {
+        return CreateEc2Response.builder()
+                .instanceId(instance.instanceId())
+                .instanceType(instance.instanceTypeAsString())
+                .imageId(instance.imageId())
+                .state(instance.state() != null ? instance.state().nameAsString() : null)
+                .build();
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.aws;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.Map;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class CreateFleetRequest extends CreateEc2Request {
+    @NotNull
+    @Min(1)
+    @Max(500)
+    @Schema(description = "Number of identical instances to launch in one RunInstances call", example = "40")
+    private Integer count;
+
+    @Min(1)
+    @Schema(description = "Optional: minimum number of instances EC2 must launch. Defaults to count (all-or-nothing).",
+            example = "40")
+    private Integer minCount;
+
+    @Schema(description = "Optional: additional tags applied to every instance (the Name tag comes from 'name')",
+            example = "{\"env\": \"load-test\", \"team\": \"platform\"}")
+    private Map<String, String> tags;
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.aws;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class CreateFleetResponse {
+    @Schema(example = "r-0123456789abcdef0")
+    String reservationId;
+
+    @Schema(example = "40")
+    int requestedCount;
+
+    @Schema(example = "40")
+    int launchedCount;
+
+    @Schema(description = "Every instance in the reservation, as returned by RunInstances")
+    List<CreateEc2Response> instances;
+}
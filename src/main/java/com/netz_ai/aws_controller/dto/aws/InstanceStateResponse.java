@@ -19,6 +19,7 @@ package com.netz_ai.aws_controller.dto.aws;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
+import software.amazon.awssdk.services.ec2.model.Instance;
 
 @Value
 @Builder
@@ -40,4 +41,15 @@ public class InstanceStateResponse {
 
     @Schema(example = "203.0.113.25")
     String publicIp;
+
+    public static InstanceStateResponse from(Instance instance) {
+        return InstanceStateResponse.builder()
+                .instanceId(instance.instanceId())
+                .state(instance.state().nameAsString())
+                .instanceType(instance.instanceTypeAsString())
+                .imageId(instance.imageId())
+                .publicDnsName(instance.publicDnsName())
+                .publicIp(instance.publicIpAddress())
+                .build();
+    }
 }
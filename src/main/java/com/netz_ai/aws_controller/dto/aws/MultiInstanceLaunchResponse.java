@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.aws;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class MultiInstanceLaunchResponse {
+    @Schema(example = "4", description = "Instances in the plan")
+    int requestedCount;
+
+    @Schema(example = "4", description = "Instances that reached 'running'")
+    int runningCount;
+
+    @Schema(example = "0", description = "Instances that were not launched or did not reach 'running' in time")
+    int failedCount;
+
+    @Schema(description = "Per-group outcome, in plan order")
+    List<Group> groups;
+
+    @Value
+    @Builder
+    public static class Group {
+        @Schema(example = "web")
+        String name;
+
+        @Schema(example = "3", description = "Identical instances launched with one RunInstances call")
+        int count;
+
+        @Schema(example = "[\"mariadb-db\"]", description = "Groups that were running before this one was launched")
+        List<String> dependsOn;
+
+        @Schema(description = "Instances of the group that reached 'running'")
+        List<CreateAndWaitResponse> instances;
+
+        @Schema(example = "Timed out waiting for instance to reach [running]")
+        String error;
+    }
+}
@@ -33,4 +33,7 @@ public class TerminateEc2Response {
 
     @Schema(example = "terminated", description = "Final state if wait=true (else null)")
     String finalState;
+
+    @Schema(example = "InvalidInstanceID.NotFound", description = "Why the instance was not terminated or not confirmed (else null)")
+    String error;
 }
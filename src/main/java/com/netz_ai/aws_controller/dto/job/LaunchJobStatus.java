@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.job;
+
+import com.netz_ai.aws_controller.dto.aws.CreateAndWaitResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+@Builder
+public class LaunchJobStatus {
+    @Schema(example = "5f0c7a4e-0a51-4d7b-9f6e-3f3a3c2b1d10")
+    String jobId;
+
+    @Schema(example = "PENDING", description = "QUEUED|PLANNING|RESOLVING_AMI|RUN_INSTANCES|PENDING|RUNNING|FAILED")
+    LaunchPhase phase;
+
+    @Schema(example = "i-0123456789abcdef0", description = "Set once RunInstances returned")
+    String instanceId;
+
+    @Schema(description = "UTC timestamp when the job was accepted")
+    Instant createdAt;
+
+    @Schema(description = "UTC timestamp of the last phase transition")
+    Instant updatedAt;
+
+    @Schema(description = "Failure reason if phase is FAILED")
+    String error;
+
+    @Schema(description = "Final instance description once the phase is RUNNING")
+    CreateAndWaitResponse result;
+
+    @Schema(description = "Every phase transition so far, oldest first")
+    List<Transition> transitions;
+
+    public record Transition(LaunchPhase phase, Instant at) {
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.job;
+
+/**
+ * Phases a launch job moves through. The Name tag is applied inside the RunInstances call
+ * (TagSpecifications), so tagging is part of {@link #RUN_INSTANCES}.
+ */
+public enum LaunchPhase {
+    QUEUED,
+    PLANNING,
+    RESOLVING_AMI,
+    RUN_INSTANCES,
+    PENDING,
+    RUNNING,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == RUNNING || this == FAILED;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.openai;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Structured-output shape of the multi-instance planner: groups of identical instances with dependency hints.
+ * Each group carries the {@link Ec2Plan} fields, so it converts into a
+ * {@link com.netz_ai.aws_controller.dto.aws.CreateEc2Request} like a single plan does.
+ */
+@Data
+@JsonClassDescription("AWS EC2 instances to create on Amazon Linux, grouped by identical configuration")
+public class Ec2FleetPlan {
+    @JsonPropertyDescription("One group per distinct instance configuration")
+    private List<Group> instances;
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    @ToString(callSuper = true)
+    @JsonClassDescription("A group of identical AWS EC2 instances")
+    public static class Group extends Ec2Plan {
+        @JsonPropertyDescription("Number of identical instances in the group, at least 1")
+        private Integer count;
+
+        @JsonPropertyDescription("Names of groups that must be running before this one is launched, e.g. web servers "
+                + "using a database depend on it; empty if none")
+        private List<String> dependsOn;
+    }
+}
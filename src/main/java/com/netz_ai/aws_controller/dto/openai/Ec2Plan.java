@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.dto.openai;
+
+import com.fasterxml.jackson.annotation.JsonClassDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Structured-output shape of the EC2 planner: the subset of
+ * {@link com.netz_ai.aws_controller.dto.aws.CreateEc2Request} the model is allowed to decide.
+ * Field names match CreateEc2Request, so the model output deserializes into it directly.
+ */
+@Data
+@JsonClassDescription("A single AWS EC2 instance to create on Amazon Linux")
+public class Ec2Plan {
+    @JsonPropertyDescription("Short kebab-case name derived from the request, e.g. web-1, mariadb-db-1")
+    private String name;
+
+    @JsonPropertyDescription("EC2 key pair name if the user gave one, otherwise empty")
+    private String keyName;
+
+    @JsonPropertyDescription("true for Amazon Linux 2023 (default), false only if Amazon Linux 2 is requested")
+    private Boolean useAl2023;
+
+    @JsonPropertyDescription("EC2 instance type, default t2.micro")
+    private String instanceType;
+
+    @JsonPropertyDescription("Security group IDs given by the user (sg-...), in order; empty if none")
+    private List<String> securityGroups;
+
+    @JsonPropertyDescription("Bash user data script for Amazon Linux using yum")
+    private String userData;
+}
@@ -18,6 +18,7 @@ package com.netz_ai.aws_controller.dto.openai;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
@@ -41,4 +42,14 @@ public class PromptRequest {
     @Positive
     @Schema(description = "Max tokens in the completion (optional)", example = "512")
     private Integer maxTokens;
+
+    @Schema(description = "Optional: AWS region for endpoints that launch instances; defaults to aws.region",
+            example = "eu-west-1")
+    @Pattern(regexp = "[a-z]{2}(-[a-z]+)+-\\d+", message = "Invalid region (e.g., eu-west-1)")
+    private String region;
+
+    @Schema(description = "Optional: idempotency key for endpoints that launch instances; "
+            + "retrying with the same key returns the original launch", example = "deploy-4711-web")
+    @Pattern(regexp = "[\\x21-\\x7E]{1,64}", message = "idempotencyKey must be 1..64 printable ASCII characters")
+    private String idempotencyKey;
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Persisted planner result: the model's JSON for a normalized prompt and model.
+ */
+@Entity
+@Table(name = "prompt_cache_entry", indexes = @Index(name = "idx_prompt_cache_created_at", columnList = "created_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromptCacheEntry {
+    /** SHA-256 (hex) of the cache key, so the primary key stays short for long prompts. */
+    @Id
+    @Column(name = "key_hash", length = 64, nullable = false)
+    private String keyHash;
+
+    @Column(name = "model", length = 128, nullable = false)
+    private String model;
+
+    @Column(name = "prompt", nullable = false, columnDefinition = "TEXT")
+    private String prompt;
+
+    @Column(name = "response_json", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String responseJson;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -19,6 +19,12 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(prefix = "aws")
 @Data
@@ -26,4 +32,181 @@ public class AwsProps {
     String accessKeyId;
     String secretAccessKey;
     String region;
-}
\ No newline at end of file
+    /** Optional endpoint used by every AWS client instead of the regional one, e.g. a local stand-in. */
+    String endpointOverride;
+    Http http = new Http();
+    StateCache stateCache = new StateCache();
+    Regions regions = new Regions();
+    Retry retry = new Retry();
+    RateLimit rateLimit = new RateLimit();
+    CircuitBreaker circuitBreaker = new CircuitBreaker();
+    WarmPool warmPool = new WarmPool();
+    LaunchTemplates launchTemplates = new LaunchTemplates();
+
+    /**
+     * HTTP transport shared by every AWS SDK client (EC2, SSM, STS, ...).
+     */
+    @Data
+    public static class Http {
+        /** Transport for synchronous clients. */
+        SyncClientType client = SyncClientType.APACHE;
+        /** Transport for asynchronous clients. */
+        AsyncClientType asyncClient = AsyncClientType.NETTY;
+        /** Connection pool size (max concurrency for Netty/CRT). */
+        int maxConnections = 200;
+        /** Max requests queued for a connection (Netty only). */
+        int maxPendingConnectionAcquires = 10_000;
+        Duration connectionTimeout = Duration.ofSeconds(2);
+        Duration socketTimeout = Duration.ofSeconds(30);
+        Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+        /** Max lifetime of a pooled connection (Apache/Netty). */
+        Duration connectionTtl = Duration.ofMinutes(5);
+        Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+        /** Background reaper closing idle connections (Apache/Netty). */
+        boolean useIdleConnectionReaper = true;
+        /** TCP keep-alive on pooled connections (Apache/Netty). */
+        boolean tcpKeepAlive = true;
+    }
+
+    /**
+     * In-memory cache of DescribeInstances results, with a TTL per instance state.
+     */
+    @Data
+    public static class StateCache {
+        boolean enabled = true;
+        long maxSize = 50_000;
+        /** TTL by EC2 state name; transitional states are short-lived, final ones can be cached long. */
+        Map<String, Duration> ttl = new HashMap<>(Map.of(
+                "pending", Duration.ofSeconds(2),
+                "running", Duration.ofSeconds(15),
+                "stopping", Duration.ofSeconds(2),
+                "shutting-down", Duration.ofSeconds(2),
+                "stopped", Duration.ofSeconds(30),
+                "terminated", Duration.ofMinutes(10)));
+        /** TTL for states not listed in {@link #ttl}. */
+        Duration defaultTtl = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Clients for regions other than {@link #region}, created on first use.
+     */
+    @Data
+    public static class Regions {
+        /** Regions requests may target besides the default one; empty allows every region the SDK knows. */
+        List<String> allowed = new ArrayList<>();
+        /** Upper bound of regions with open clients; the least recently used are closed beyond it. */
+        long maxClients = 16;
+        /** Clients of a region are closed after this long without use. */
+        Duration idleTimeout = Duration.ofMinutes(30);
+    }
+
+    /**
+     * SDK retry strategy of every AWS client; both modes back off exponentially with jitter.
+     */
+    @Data
+    public static class Retry {
+        /** ADAPTIVE additionally slows the client down while AWS throttles it. */
+        RetryMode mode = RetryMode.ADAPTIVE;
+        /** Attempts per call, including the first one. */
+        int maxAttempts = 5;
+    }
+
+    /**
+     * Client-side rate limit per region and EC2 API action, applied before the call is sent.
+     */
+    @Data
+    public static class RateLimit {
+        boolean enabled = true;
+        /** Calls fail with 503 instead of waiting longer than this for their slot. */
+        Duration maxWait = Duration.ofSeconds(10);
+        /** Sustained calls per second by API action (burst: one second's worth); actions not listed are unlimited. */
+        Map<String, Double> perSecond = new HashMap<>(Map.of(
+                "RunInstances", 5.0,
+                "TerminateInstances", 5.0,
+                "DescribeInstances", 20.0));
+    }
+
+    /**
+     * Circuit breaker per region around EC2 calls; while open, calls fail fast with 503.
+     */
+    @Data
+    public static class CircuitBreaker {
+        boolean enabled = true;
+        /** Number of most recent calls the failure rate is computed over. */
+        int windowSize = 20;
+        /** Calls needed in the window before the circuit may open. */
+        int minimumCalls = 10;
+        /** Share of throttled / 5xx / timed-out calls that opens the circuit. */
+        double failureRateThreshold = 0.5;
+        Duration openDuration = Duration.ofSeconds(30);
+        /** Probe calls let through when half-open; all must succeed to close the circuit. */
+        int halfOpenCalls = 3;
+    }
+
+    /**
+     * EC2 launch templates created for frequently used launch shapes; needs the ec2:*LaunchTemplate* permissions.
+     */
+    @Data
+    public static class LaunchTemplates {
+        boolean enabled = false;
+        /** Launches of the same shape before it gets a template. */
+        int minUses = 2;
+        long maxSize = 1000;
+        /** Cached template versions unused for this long are dropped (and looked up again on their next use). */
+        Duration ttl = Duration.ofDays(1);
+    }
+
+    /**
+     * Pre-launched instances in the default region that wait-running launches can claim instead of launching.
+     */
+    @Data
+    public static class WarmPool {
+        boolean enabled = false;
+        /** Upper bound of pooled instances across all profiles. */
+        int maxInstances = 50;
+        /** Max instances launched per profile and replenish round. */
+        int maxLaunchPerRound = 10;
+        /** How long launching, starting or stopping a pooled instance may take. */
+        Duration waitTimeout = Duration.ofMinutes(5);
+        List<Profile> profiles = new ArrayList<>();
+
+        /**
+         * One kind of pooled instance. A launch request matches a profile with the same AMI and instance type
+         * whose key pair and security groups it does not contradict.
+         */
+        @Data
+        public static class Profile {
+            String name;
+            /** AMI ID; empty uses the latest Amazon Linux AMI ({@link #useAl2023}). */
+            String ami;
+            boolean useAl2023 = true;
+            String instanceType = "t2.micro";
+            String keyName;
+            List<String> securityGroupIds = new ArrayList<>();
+            /** Boot-time setup of pooled instances (e.g. pre-installing CI tooling). */
+            String userData;
+            /** IAM instance profile name of pooled instances, e.g. one allowing SSM. */
+            String iamInstanceProfile;
+            /** Instances kept in the pool. */
+            int size = 0;
+            /** Pooled instances kept running (claimed in about a second); the rest are stopped and only cost storage. */
+            int maxRunning = 0;
+            /** Pooled instances older than this are terminated and replaced. */
+            Duration maxIdle = Duration.ofHours(12);
+            /** Run a request's userData on the claimed instance through SSM (needs the agent and an instance profile). */
+            boolean ssmUserData = false;
+        }
+    }
+
+    public enum RetryMode {
+        STANDARD, ADAPTIVE
+    }
+
+    public enum SyncClientType {
+        APACHE, URL_CONNECTION, CRT
+    }
+
+    public enum AsyncClientType {
+        NETTY, CRT
+    }
+}
@@ -19,6 +19,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "openai")
 @Data
@@ -27,4 +29,27 @@ public class OpenAiProperties {
     int timeoutSeconds;
     String model;
     String apiKey;
+    /** SDK-level retries (429/5xx with backoff); 0 disables them. */
+    int maxRetries = 2;
+    Limiter limiter = new Limiter();
+
+    /**
+     * Client-side limits on outbound completions, applied before the call reaches OkHttp.
+     */
+    @Data
+    public static class Limiter {
+        boolean enabled = true;
+        /** Completions in flight at once (streaming ones included). */
+        int maxConcurrent = 8;
+        /** Callers allowed to wait for a permit; beyond this, calls fail fast with 503. */
+        int maxQueue = 50;
+        /** Longest a caller waits for a permit and rate budget before 503. */
+        Duration maxWait = Duration.ofSeconds(30);
+        /** Account request-per-minute budget; 0 disables the bucket. */
+        int requestsPerMinute = 500;
+        /** Account token-per-minute budget; 0 disables the bucket. */
+        int tokensPerMinute = 200_000;
+        /** Completion tokens reserved per call until the actual usage is known. */
+        int estimatedCompletionTokens = 2_000;
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache of SSM-resolved AMI IDs keyed by region and parameter name (AMI IDs differ per region).
+ * <ul>
+ *     <li>After {@code aws.ami-cache.ttl} the next lookup still returns the cached value and triggers an
+ *     asynchronous refresh, so launches never wait on SSM once a value is known.</li>
+ *     <li>If the refresh fails (SSM unavailable or throttled), the stale value keeps being served for up to
+ *     {@code aws.ami-cache.max-stale} past the TTL.</li>
+ *     <li>Lookups go through {@link Ec2Resilience} (action {@code GetParameter}), so they share the region's
+ *     rate limit and circuit breaker.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AmiCache {
+    private final AwsClientRegistry clients;
+    private final Ec2Resilience resilience;
+    private final AsyncLoadingCache<Key, String> cache;
+
+    @Value("${aws.al2Param}")
+    private String al2Param;
+
+    @Value("${aws.al2023Param}")
+    private String al2023Param;
+
+    public AmiCache(AwsClientRegistry clients,
+                    Ec2Resilience resilience,
+                    @Value("${aws.ami-cache.ttl:PT1H}") Duration ttl,
+                    @Value("${aws.ami-cache.max-stale:P1D}") Duration maxStale) {
+        this.clients = clients;
+        this.resilience = resilience;
+        this.cache = Caffeine.newBuilder()
+                .refreshAfterWrite(ttl)
+                .expireAfterWrite(ttl.plus(maxStale))
+                .buildAsync((key, executor) -> load(key));
+    }
+
+    /**
+     * Latest Amazon Linux AMI ID in the default region for the configured AL2 / AL2023 SSM parameter.
+     */
+    public CompletableFuture<String> latestAmazonLinux(boolean useAl2023) {
+        return latestAmazonLinux(clients.defaultRegion(), useAl2023);
+    }
+
+    public CompletableFuture<String> latestAmazonLinux(Region region, boolean useAl2023) {
+        return get(region, useAl2023 ? al2023Param : al2Param);
+    }
+
+    public CompletableFuture<String> get(Region region, String parameterName) {
+        return cache.get(new Key(region, parameterName));
+    }
+
+    /**
+     * Drop every cached AMI ID; the next lookup goes to SSM.
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private CompletableFuture<String> load(Key key) {
+        log.debug("Resolving AMI from SSM parameter {} in {}", key.parameterName(), key.region().id());
+        return resilience.callAsync(key.region(), "GetParameter", () -> clients.ssmAsync(key.region())
+                        .getParameter(GetParameterRequest.builder().name(key.parameterName()).build()))
+                .thenApply(resp -> resp.parameter().value()) // ami-xxxx
+                .whenComplete((ami, ex) -> {
+                    if (ex != null) {
+                        log.warn("SSM lookup of {} in {} failed; serving cached AMI if present: {}",
+                                key.parameterName(), key.region().id(), ex.toString());
+                    }
+                });
+    }
+
+    private record Key(Region region, String parameterName) {
+    }
+}
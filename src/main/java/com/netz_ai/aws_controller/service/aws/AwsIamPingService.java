@@ -15,60 +15,69 @@
 
 package com.netz_ai.aws_controller.service.aws;
 
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
 import com.netz_ai.aws_controller.controller.aws.PingResponse;
-import com.netz_ai.aws_controller.properties.AwsProps;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.env.Environment;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.sts.StsClient;
 import software.amazon.awssdk.services.sts.model.GetCallerIdentityRequest;
 import software.amazon.awssdk.services.sts.model.GetCallerIdentityResponse;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AwsIamPingService {
-    private final AwsProps awsProps;
+    private final AwsClientRegistry clients;
+    private final StsClient sts;
+
+    @Value("${aws.sts.identity-cache-ttl:PT30S}")
+    private Duration identityTtl;
+
+    private volatile CallerIdentity cachedIdentity;
 
     public String whoAmI() {
-        log.debug("Inside AwsIamPingService.whoAmI(): {}", awsProps.getRegion());
-        return awsProps.getRegion();
+        Region region = clients.defaultRegion();
+        log.debug("Inside AwsIamPingService.whoAmI(): {}", region);
+        return region.id();
     }
 
     public PingResponse ping() {
-        long start = System.nanoTime();
-        log.debug("Inside AwsIamPingService.ping(): {}", awsProps.getRegion());
-        // Resolve region: prefer AWS_REGION env/system; fallback to us-east-1
-        Region region = Optional.ofNullable(awsProps.getRegion())
-                .map(Region::of)
-                .orElse(Region.EU_CENTRAL_2);
-        log.info("Region: {}", region.toString());
+        Region region = clients.defaultRegion();
+        log.debug("Inside AwsIamPingService.ping(): {}", region);
 
         String providerHint = "Using DefaultCredentialsProvider";
         String err = null;
         String account = null, userId = null, arn = null;
+        long latencyMs = 0;
 
-        try (StsClient sts = StsClient.builder()
-                .region(region)
-                .credentialsProvider(DefaultCredentialsProvider.create())
-                .build()) {
-
-            GetCallerIdentityResponse resp = sts.getCallerIdentity(GetCallerIdentityRequest.builder().build());
-            account = resp.account();
-            userId = resp.userId();
-            arn = resp.arn();
-
-        } catch (Exception ex) {
-            err = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+        // Health checks ping every few seconds; reuse a recent identity instead of calling STS each time
+        CallerIdentity identity = cachedIdentity;
+        boolean cached = identity != null && identity.fetchedAt().plus(identityTtl).isAfter(Instant.now());
+        if (!cached) {
+            identity = null;
+            long start = System.nanoTime();
+            try {
+                GetCallerIdentityResponse resp = sts.getCallerIdentity(GetCallerIdentityRequest.builder().build());
+                long rtt = Math.round((System.nanoTime() - start) / 1_000_000.0);
+                identity = new CallerIdentity(resp, rtt, Instant.now());
+                cachedIdentity = identity;
+            } catch (Exception ex) {
+                err = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+                latencyMs = Math.round((System.nanoTime() - start) / 1_000_000.0);
+            }
+        }
+        if (identity != null) {
+            account = identity.response().account();
+            userId = identity.response().userId();
+            arn = identity.response().arn();
+            latencyMs = identity.latencyMs();
         }
-
-        long latencyMs = Math.round((System.nanoTime() - start) / 1_000_000.0);
 
         return PingResponse.builder()
                 .status(err == null ? "OK" : "FAIL")
@@ -77,9 +86,16 @@ public class AwsIamPingService {
                 .userId(userId)
                 .arn(arn)
                 .latencyMs(latencyMs)
+                .cached(cached)
                 .timestamp(Instant.now().toString())
                 .providerHint(providerHint)
                 .error(err == null ? "" : err)
                 .build();
     }
+
+    /**
+     * Last successful GetCallerIdentity result and the STS round trip it took.
+     */
+    private record CallerIdentity(GetCallerIdentityResponse response, long latencyMs, Instant fetchedAt) {
+    }
 }
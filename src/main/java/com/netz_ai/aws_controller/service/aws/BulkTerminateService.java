@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.dto.aws.BulkTerminateResponse;
+import com.netz_ai.aws_controller.dto.aws.TerminateEc2Response;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.model.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Terminates many instances at once:
+ * <ol>
+ *     <li>IDs are the union of the explicit list and every non-terminated instance matching the tag selectors;</li>
+ *     <li>they are sent in TerminateInstances calls of up to {@code aws.bulk.terminate-chunk-size} IDs, run on
+ *     {@code awsBulkExecutor} (whose size bounds the parallelism). A chunk rejected as a whole (e.g. one unknown
+ *     ID) is split in halves until the offending IDs are isolated and reported;</li>
+ *     <li>with {@code wait}, every accepted instance is awaited through the shared {@link InstanceStatePoller},
+ *     i.e. one batched DescribeInstances loop for all of them.</li>
+ * </ol>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkTerminateService {
+    private static final List<String> LIVE_STATES = List.of("pending", "running", "stopping", "stopped", "shutting-down");
+
+    private final AwsClientRegistry clients;
+    private final Ec2Resilience resilience;
+    private final Ec2Service ec2Service;
+    private final InstanceStatePoller poller;
+    private final InstanceStateCache stateCache;
+    private final InstanceInventory inventory;
+    @Qualifier("awsBulkExecutor")
+    private final ThreadPoolTaskExecutor awsBulkExecutor;
+
+    // TerminateInstances accepts up to 1000 instance IDs per call
+    @Value("${aws.bulk.terminate-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${aws.bulk.max-instances:10000}")
+    private int maxInstances;
+
+    public BulkTerminateResponse terminate(List<String> instanceIds, List<String> tags, boolean wait, Duration timeout) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (instanceIds != null) {
+            ids.addAll(instanceIds);
+        }
+        if (tags != null && !tags.isEmpty()) {
+            ec2Service.listInstances(LIVE_STATES, null, tags, 1000)
+                    .limit(maxInstances + 1L)
+                    .forEach(i -> ids.add(i.instanceId()));
+        }
+        if (ids.size() > maxInstances) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Selection exceeds aws.bulk.max-instances (" + maxInstances + ")");
+        }
+
+        Map<String, TerminateEc2Response.TerminateEc2ResponseBuilder> results = new LinkedHashMap<>();
+        ids.forEach(id -> results.put(id, TerminateEc2Response.builder().instanceId(id)));
+
+        List<String> all = List.copyOf(ids);
+        List<CompletableFuture<Map<String, Outcome>>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += chunkSize) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + chunkSize));
+            chunks.add(CompletableFuture.supplyAsync(() -> terminateChunk(chunk), awsBulkExecutor));
+        }
+        List<String> accepted = new ArrayList<>();
+        for (CompletableFuture<Map<String, Outcome>> chunk : chunks) {
+            join(chunk).forEach((id, outcome) -> {
+                TerminateEc2Response.TerminateEc2ResponseBuilder b = results.get(id);
+                if (b == null) {
+                    return;
+                }
+                if (outcome.error() != null) {
+                    b.error(outcome.error());
+                } else {
+                    b.previousState(outcome.previous()).currentState(outcome.current());
+                    accepted.add(id);
+                }
+            });
+        }
+
+        if (wait && !accepted.isEmpty()) {
+            Map<String, CompletableFuture<Instance>> waits = new LinkedHashMap<>();
+            accepted.forEach(id -> waits.put(id, poller.awaitTerminated(id, timeout)));
+            waits.forEach((id, future) -> {
+                TerminateEc2Response.TerminateEc2ResponseBuilder b = results.get(id);
+                try {
+                    b.finalState(join(future).state().nameAsString());
+                } catch (ResponseStatusException e) {
+                    b.error(e.getReason());
+                }
+            });
+        }
+
+        List<TerminateEc2Response> instances = results.values().stream()
+                .map(TerminateEc2Response.TerminateEc2ResponseBuilder::build)
+                .toList();
+        return BulkTerminateResponse.builder()
+                .requestedCount(ids.size())
+                .terminatingCount(accepted.size())
+                .failedCount((int) instances.stream().filter(r -> r.getError() != null).count())
+                .instances(instances)
+                .build();
+    }
+
+    /**
+     * Terminate one chunk; if EC2 rejects it as a whole, bisect to isolate the IDs it objects to.
+     */
+    private Map<String, Outcome> terminateChunk(List<String> ids) {
+        Map<String, Outcome> outcomes = new HashMap<>();
+        try {
+            Region region = clients.defaultRegion();
+            TerminateInstancesResponse resp = resilience.call(region, "TerminateInstances", () -> clients.ec2(region)
+                    .terminateInstances(TerminateInstancesRequest.builder()
+                            .instanceIds(ids)
+                            .build()));
+            for (InstanceStateChange change : resp.terminatingInstances()) {
+                String current = change.currentState() != null ? change.currentState().nameAsString() : null;
+                outcomes.put(change.instanceId(), new Outcome(
+                        change.previousState() != null ? change.previousState().nameAsString() : null, current, null));
+                stateCache.invalidate(change.instanceId());
+                inventory.recordState(change.instanceId(), current, "bulk-terminate");
+            }
+        } catch (Ec2Exception e) {
+            String code = e.awsErrorDetails() != null ? e.awsErrorDetails().errorCode() : null;
+            if (ids.size() == 1 || !isPerInstanceError(code)) {
+                // a single ID, or an error (throttling, auth, ...) that splitting would not resolve
+                String error = code != null ? code : e.getMessage();
+                ids.forEach(id -> outcomes.put(id, new Outcome(null, null, error)));
+            } else {
+                log.debug("TerminateInstances rejected {} IDs ({}); splitting", ids.size(), e.getMessage());
+                int mid = ids.size() / 2;
+                outcomes.putAll(terminateChunk(ids.subList(0, mid)));
+                outcomes.putAll(terminateChunk(ids.subList(mid, ids.size())));
+            }
+        } catch (SdkException e) {
+            // timeout, connection reset, ...: the chunk's outcome is unknown, but the other chunks' results stand
+            ids.forEach(id -> outcomes.put(id, new Outcome(null, null, e.getMessage())));
+        } catch (ResponseStatusException e) {
+            // rate budget exhausted or circuit open: report it for the chunk instead of failing the others
+            ids.forEach(id -> outcomes.put(id, new Outcome(null, null, e.getReason())));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Errors caused by some of the IDs (unknown, malformed, termination protection) fail the whole call.
+     */
+    private static boolean isPerInstanceError(String code) {
+        return code != null && (code.startsWith("InvalidInstanceID") || "OperationNotPermitted".equals(code));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Outcome(String previous, String current, String error) {
+    }
+}
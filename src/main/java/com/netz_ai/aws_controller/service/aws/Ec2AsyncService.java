@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.Ec2AsyncClient;
+import software.amazon.awssdk.services.ec2.model.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link Ec2Service} built on {@link Ec2AsyncClient}.
+ * No thread is held while EC2 is working; waits are served by the shared {@link InstanceStatePoller}.
+ * Methods taking {@code regionOpt} work in that region (default: {@code aws.region}).
+ * EC2 calls go through {@link Ec2Resilience}; a rate-limit wait delays the call without holding a thread.
+ */
+@Service
+@RequiredArgsConstructor
+public class Ec2AsyncService {
+    private final AwsClientRegistry clients;
+    private final AmiCache amiCache;
+    private final InstanceStatePoller poller;
+    private final InstanceInventory inventory;
+    private final InstanceStateCache stateCache;
+    private final Ec2Resilience resilience;
+    private final WarmPool warmPool;
+    private final LaunchTemplates launchTemplates;
+
+    public Region resolveRegion(Optional<String> regionOpt) {
+        return clients.resolve(regionOpt);
+    }
+
+    public CompletableFuture<String> resolveImageId(Region region, boolean useAl2023, Optional<String> overrideAmi) {
+        if (overrideAmi.isPresent() && !overrideAmi.get().isBlank()) {
+            return CompletableFuture.completedFuture(overrideAmi.get());
+        }
+        return amiCache.latestAmazonLinux(region, useAl2023); // ami-xxxx
+    }
+
+    public CompletableFuture<RunInstancesResponse> runInstances(Region region, RunInstancesRequest req) {
+        return resilience.callAsync(region, "RunInstances", () -> clients.ec2Async(region).runInstances(req))
+                .thenApply(resp -> {
+                    resp.instances().forEach(i -> {
+                        stateCache.put(i);
+                        inventory.record(i, "launch");
+                    });
+                    return resp;
+                });
+    }
+
+    /**
+     * RunInstances request for one instance; launches from a {@link LaunchTemplates} template when the shape has one.
+     */
+    public CompletableFuture<RunInstancesRequest.Builder> runInstancesRequest(
+            Region region,
+            String imageId,
+            Optional<String> nameOpt,
+            Optional<String> keyNameOpt,
+            Optional<String> instanceTypeStr,
+            Optional<String> userDataPlain,
+            Optional<List<String>> securityGroupIdsOpt) {
+
+        InstanceType instanceType = Ec2Requests.resolveInstanceType(instanceTypeStr);
+        return launchTemplates.resolve(region, imageId, instanceType, keyNameOpt, securityGroupIdsOpt, userDataPlain)
+                .thenApply(template -> template
+                        .map(t -> Ec2Requests.runInstances(t, nameOpt, Map.of(), 1, 1))
+                        .orElseGet(() -> Ec2Requests.runInstances(imageId, nameOpt, keyNameOpt, instanceTypeStr,
+                                userDataPlain, securityGroupIdsOpt, Map.of(), 1, 1)));
+    }
+
+    public CompletableFuture<RunInstancesResponse> createEc2Instance(
+            Optional<String> regionOpt,
+            Optional<String> nameOpt,
+            Optional<String> keyNameOpt,
+            boolean useAl2023,
+            Optional<String> overrideAmi,
+            Optional<String> instanceTypeStr,
+            Optional<String> userDataPlain,
+            Optional<List<String>> securityGroupIdsOpt,
+            Optional<String> clientTokenOpt) {
+
+        Region region = clients.resolve(regionOpt);
+        Optional<String> clientToken = clientTokenOpt.map(IdempotentLaunches::clientToken);
+        return resolveImageId(region, useAl2023, overrideAmi)
+                .thenCompose(imageId -> runInstancesRequest(region, imageId, nameOpt, keyNameOpt, instanceTypeStr,
+                        userDataPlain, securityGroupIdsOpt))
+                .thenCompose(req -> {
+                    clientToken.ifPresent(req::clientToken);
+                    return runInstances(region, req.build());
+                });
+    }
+
+    /**
+     * Completes when a new instance is running; a matching instance from the {@link WarmPool} is claimed
+     * instead when one is available, unless a client token asks for an idempotent launch.
+     */
+    public CompletableFuture<Instance> createAndWaitRunning(
+            Optional<String> regionOpt,
+            Optional<String> nameOpt,
+            Optional<String> keyNameOpt,
+            boolean useAl2023,
+            Optional<String> overrideAmi,
+            Optional<String> instanceTypeStr,
+            Optional<String> userDataPlain,
+            Optional<List<String>> securityGroupIdsOpt,
+            Optional<String> clientTokenOpt,
+            Duration timeout,
+            Duration pollInterval) {
+
+        // a claimed instance is not tied to the token, so a retry would claim (or launch) another one
+        CompletableFuture<Optional<Instance>> claim = clientTokenOpt.isPresent()
+                ? CompletableFuture.completedFuture(Optional.empty())
+                : warmPool.claim(clients.resolve(regionOpt), nameOpt, keyNameOpt, useAl2023, overrideAmi,
+                        instanceTypeStr, userDataPlain, securityGroupIdsOpt);
+        return claim
+                .thenCompose(warm -> warm.map(CompletableFuture::completedFuture).orElseGet(() ->
+                        createEc2Instance(regionOpt, nameOpt, keyNameOpt, useAl2023, overrideAmi,
+                                instanceTypeStr, userDataPlain, securityGroupIdsOpt, clientTokenOpt)
+                                .thenCompose(run -> waitUntilRunning(regionOpt, run.instances().getFirst().instanceId(),
+                                        timeout, pollInterval))));
+    }
+
+    /**
+     * Completes when the instance becomes 'running', using the shared {@link InstanceStatePoller}.
+     * Completes exceptionally with a {@link ResponseStatusException} (408 timeout, 404 not found,
+     * 409 failure state).
+     */
+    public CompletableFuture<Instance> waitUntilRunning(Optional<String> regionOpt, String instanceId,
+                                                        Duration timeout, Duration pollInterval) {
+        return poller.awaitRunning(clients.resolve(regionOpt), instanceId, timeout);
+    }
+
+    /**
+     * Served from the {@link InstanceStateCache}; otherwise described asynchronously (once for concurrent callers)
+     * and cached.
+     */
+    public CompletableFuture<Instance> describeInstance(Optional<String> regionOpt, String instanceId) {
+        return stateCache.getAsync(clients.resolve(regionOpt), instanceId);
+    }
+
+    public CompletableFuture<TerminateInstancesResponse> terminateInstance(Optional<String> regionOpt, String instanceId) {
+        Region region = clients.resolve(regionOpt);
+        return resilience.callAsync(region, "TerminateInstances", () -> clients.ec2Async(region)
+                        .terminateInstances(TerminateInstancesRequest.builder()
+                                .instanceIds(instanceId)
+                                .build()))
+                .thenApply(resp -> {
+                    stateCache.invalidate(instanceId);
+                    resp.terminatingInstances().forEach(change ->
+                            inventory.recordState(change.instanceId(), change.currentState().nameAsString(), "terminate"));
+                    return resp;
+                });
+    }
+
+    public CompletableFuture<Instance> waitUntilTerminated(Optional<String> regionOpt, String instanceId,
+                                                           Duration timeout, Duration pollInterval) {
+        // final description (state should be 'terminated')
+        return poller.awaitTerminated(clients.resolve(regionOpt), instanceId, timeout);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.services.ec2.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builders shared by the EC2 services, so that every launch path assembles
+ * {@link RunInstancesRequest}s the same way.
+ */
+public final class Ec2Requests {
+    public static final String NAME_TAG = "Name";
+
+    private Ec2Requests() {
+    }
+
+    public static InstanceType resolveInstanceType(Optional<String> instanceTypeStr) {
+        // Resolve instance type (default t2.micro) free tier
+        if (instanceTypeStr.isEmpty() || instanceTypeStr.get().isBlank()) {
+            return InstanceType.T2_MICRO;
+        }
+        // AWS SDK v2 enum expects exact value (e.g., "t3.micro")
+        InstanceType instanceType = InstanceType.fromValue(instanceTypeStr.get());
+        if (instanceType == InstanceType.UNKNOWN_TO_SDK_VERSION) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported instanceType: " + instanceTypeStr.get());
+        }
+        return instanceType;
+    }
+
+    public static String encodeUserData(String plain) {
+        // User data: EC2 API expects base64-encoded content; accept plain text and encode here.
+        return Base64.getEncoder().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds a RunInstances request for {@code minCount..maxCount} identical instances.
+     * Tags are sent as {@code TagSpecifications} so no separate CreateTags call is needed.
+     */
+    public static RunInstancesRequest.Builder runInstances(
+            String imageId,
+            Optional<String> nameOpt,
+            Optional<String> keyNameOpt,
+            Optional<String> instanceTypeStr,
+            Optional<String> userDataPlain,
+            Optional<List<String>> securityGroupIdsOpt,
+            Map<String, String> tags,
+            int minCount,
+            int maxCount) {
+
+        RunInstancesRequest.Builder req = RunInstancesRequest.builder()
+                .imageId(imageId)
+                .instanceType(resolveInstanceType(instanceTypeStr))
+                .minCount(minCount)
+                .maxCount(maxCount);
+
+        keyNameOpt.filter(s -> !s.isBlank()).ifPresent(req::keyName);
+
+        // Security group IDs (VPC). If omitted -> default security group is used.
+        securityGroupIdsOpt
+                .filter(list -> !list.isEmpty())
+                .ifPresent(req::securityGroupIds);
+
+        userDataPlain.filter(s -> !s.isBlank()).ifPresent(s -> req.userData(encodeUserData(s)));
+
+        tagSpecification(nameOpt, tags).ifPresent(req::tagSpecifications);
+        return req;
+    }
+
+    /**
+     * Builds a RunInstances request that launches from a launch template: AMI, instance type, key pair,
+     * security groups and userData come from the template, only the count and tags are sent.
+     */
+    public static RunInstancesRequest.Builder runInstances(
+            LaunchTemplateSpecification template,
+            Optional<String> nameOpt,
+            Map<String, String> tags,
+            int minCount,
+            int maxCount) {
+
+        RunInstancesRequest.Builder req = RunInstancesRequest.builder()
+                .launchTemplate(template)
+                .minCount(minCount)
+                .maxCount(maxCount);
+        tagSpecification(nameOpt, tags).ifPresent(req::tagSpecifications);
+        return req;
+    }
+
+    public static Optional<TagSpecification> tagSpecification(Optional<String> nameOpt, Map<String, String> tags) {
+        List<Tag> all = new ArrayList<>();
+        nameOpt.filter(s -> !s.isBlank())
+                .ifPresent(name -> all.add(Tag.builder().key(NAME_TAG).value(name).build()));
+        if (tags != null) {
+            tags.forEach((k, v) -> {
+                if (!NAME_TAG.equals(k)) {
+                    all.add(Tag.builder().key(k).value(v).build());
+                }
+            });
+        }
+        if (all.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(TagSpecification.builder()
+                .resourceType(ResourceType.INSTANCE)
+                .tags(all)
+                .build());
+    }
+
+    public static String nameTag(Instance instance) {
+        if (!instance.hasTags()) {
+            return null;
+        }
+        return instance.tags().stream()
+                .filter(t -> NAME_TAG.equals(t.key()))
+                .findFirst().map(Tag::value).orElse(null);
+    }
+
+    /**
+     * DescribeInstances filters for the given states, instance types and tag selectors.
+     * A tag selector is {@code key=value} (values for the same key are OR-ed) or a bare {@code key} (tag present).
+     * Empty or null lists add no filter.
+     */
+    public static List<Filter> instanceFilters(List<String> states, List<String> instanceTypes, List<String> tags) {
+        List<Filter> filters = new ArrayList<>();
+        if (states != null && !states.isEmpty()) {
+            filters.add(Filter.builder().name("instance-state-name").values(states).build());
+        }
+        if (instanceTypes != null && !instanceTypes.isEmpty()) {
+            filters.add(Filter.builder().name("instance-type").values(instanceTypes).build());
+        }
+        if (tags != null && !tags.isEmpty()) {
+            Map<String, List<String>> valuesByKey = new LinkedHashMap<>();
+            List<String> keys = new ArrayList<>();
+            for (String selector : tags) {
+                int eq = selector.indexOf('=');
+                if (eq == 0 || selector.isBlank()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid tag selector: " + selector);
+                }
+                if (eq < 0) {
+                    keys.add(selector);
+                } else {
+                    valuesByKey.computeIfAbsent(selector.substring(0, eq), k -> new ArrayList<>())
+                            .add(selector.substring(eq + 1));
+                }
+            }
+            valuesByKey.forEach((key, values) ->
+                    filters.add(Filter.builder().name("tag:" + key).values(values).build()));
+            if (!keys.isEmpty()) {
+                filters.add(Filter.builder().name("tag-key").values(keys).build());
+            }
+        }
+        return filters;
+    }
+}
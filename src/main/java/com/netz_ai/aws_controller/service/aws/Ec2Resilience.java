@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.properties.AwsProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Client-side protection around every EC2 call (and the SSM calls on the launch path), applied after the SDK's own
+ * (adaptive) retries:
+ * <ul>
+ *     <li>a rate limit per region and API action ({@code aws.rate-limit.per-second.<Action>}), so bursts are
+ *     spread out instead of being throttled by EC2; a call that would wait longer than
+ *     {@code aws.rate-limit.max-wait} fails with 503;</li>
+ *     <li>a circuit breaker per region that opens when too many of the recent calls failed (throttled after
+ *     retries, 5xx, timeouts) and then fails fast with 503 for {@code aws.circuit-breaker.open-duration},
+ *     before letting a few probe calls through.</li>
+ * </ul>
+ * Metrics: {@code aws.ratelimit.wait}, {@code aws.ratelimit.rejected} (tags region, action),
+ * {@code aws.circuit.state} (0 closed, 1 half-open, 2 open) and {@code aws.circuit.calls{outcome}} (tag region).
+ */
+@Slf4j
+@Component
+public class Ec2Resilience {
+    private final AwsProps.RateLimit rateLimitProps;
+    private final AwsProps.CircuitBreaker breakerProps;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Double> perSecond = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<Region, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public Ec2Resilience(AwsProps awsProps, MeterRegistry meterRegistry) {
+        this.rateLimitProps = awsProps.getRateLimit();
+        this.breakerProps = awsProps.getCircuitBreaker();
+        this.meterRegistry = meterRegistry;
+        perSecond.putAll(rateLimitProps.getPerSecond());
+    }
+
+    /**
+     * Run a blocking EC2 call, waiting for its rate budget first.
+     * @throws ResponseStatusException 503 if the circuit is open or the rate budget is not available in time
+     */
+    public <T> T call(Region region, String action, Supplier<T> call) {
+        CircuitBreaker breaker = breaker(region);
+        breaker.acquire();
+        try {
+            long waitNanos = limiter(region, action).reserve();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.release();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for EC2 rate budget");
+        } catch (RuntimeException e) {
+            breaker.release();
+            throw e;
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            breaker.record(e);
+            throw e;
+        }
+        breaker.record(null);
+        return result;
+    }
+
+    /**
+     * Run a non-blocking EC2 call; a rate-limit wait delays the call without holding a thread.
+     * The returned future fails with 503 if the circuit is open or the rate budget is not available in time.
+     */
+    public <T> CompletableFuture<T> callAsync(Region region, String action, Supplier<CompletableFuture<T>> call) {
+        CircuitBreaker breaker = breaker(region);
+        long waitNanos;
+        try {
+            breaker.acquire();
+            try {
+                waitNanos = limiter(region, action).reserve();
+            } catch (RuntimeException e) {
+                breaker.release();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result = waitNanos > 0
+                ? CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> invoke(call))
+                : invoke(call);
+        return result.whenComplete((value, failure) -> breaker.record(failure));
+    }
+
+    private static <T> CompletableFuture<T> invoke(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Whether the failure indicates EC2 itself is struggling, as opposed to a bad request.
+     */
+    static boolean isDegraded(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof AwsServiceException e) {
+            return e.isThrottlingException() || e.statusCode() >= 500;
+        }
+        return cause instanceof SdkClientException; // timeouts, connection failures
+    }
+
+    private RateLimiter limiter(Region region, String action) {
+        return limiters.computeIfAbsent(region.id() + '/' + action, key -> {
+            Double rate = rateLimitProps.isEnabled() ? perSecond.get(action) : null;
+            return new RateLimiter(rate, rateLimitProps.getMaxWait(),
+                    Timer.builder("aws.ratelimit.wait").tag("region", region.id()).tag("action", action)
+                            .register(meterRegistry),
+                    Counter.builder("aws.ratelimit.rejected").tag("region", region.id()).tag("action", action)
+                            .register(meterRegistry));
+        });
+    }
+
+    private CircuitBreaker breaker(Region region) {
+        return breakers.computeIfAbsent(region, r -> {
+            CircuitBreaker breaker = new CircuitBreaker(r);
+            Gauge.builder("aws.circuit.state", breaker, b -> b.state.ordinal())
+                    .tag("region", r.id())
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+
+    /**
+     * Evenly spaced permits with a burst of one second's worth. Reservations are taken up front and the caller
+     * waits out its slot, so concurrent callers never retry in lockstep.
+     */
+    static final class RateLimiter {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final long maxWaitNanos;
+        private final Timer waits;
+        private final Counter rejected;
+        private long nextFree = System.nanoTime();
+
+        RateLimiter(Double perSecond, Duration maxWait, Timer waits, Counter rejected) {
+            this.intervalNanos = perSecond == null || perSecond <= 0 ? 0 : (long) (1_000_000_000L / perSecond);
+            this.burstNanos = Math.max(0, (long) Math.ceil(perSecond == null ? 0 : perSecond) - 1) * intervalNanos;
+            this.maxWaitNanos = maxWait.toNanos();
+            this.waits = waits;
+            this.rejected = rejected;
+        }
+
+        /**
+         * Reserve a permit.
+         * @return nanoseconds to wait before using it
+         * @throws ResponseStatusException 503 if the wait would exceed max-wait
+         */
+        long reserve() {
+            if (intervalNanos == 0) {
+                return 0;
+            }
+            long wait;
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                long start = Math.max(nextFree, now);
+                wait = Math.max(0, start - now - burstNanos);
+                if (wait > maxWaitNanos) {
+                    rejected.increment();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "EC2 request rate limit exceeded");
+                }
+                nextFree = start + intervalNanos;
+            } finally {
+                lock.unlock();
+            }
+            waits.record(wait, TimeUnit.NANOSECONDS);
+            return wait;
+        }
+    }
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    /**
+     * Count-based circuit breaker over the last {@code window-size} calls of one region.
+     */
+    final class CircuitBreaker {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Region region;
+        private final boolean[] window;
+        private final Counter successes;
+        private final Counter failures;
+        private final Counter rejections;
+        private int recorded;
+        private int next;
+        private int failed;
+        private volatile State state = State.CLOSED;
+        private long openUntil;
+        private int probes;
+        private int probeSuccesses;
+
+        CircuitBreaker(Region region) {
+            this.region = region;
+            this.window = new boolean[breakerProps.getWindowSize()];
+            this.successes = calls("success");
+            this.failures = calls("failure");
+            this.rejections = calls("rejected");
+        }
+
+        private Counter calls(String outcome) {
+            return Counter.builder("aws.circuit.calls").tag("region", region.id()).tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        void acquire() {
+            if (!breakerProps.isEnabled()) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+                    transition(State.HALF_OPEN);
+                }
+                if (state == State.OPEN
+                        || (state == State.HALF_OPEN && probes >= breakerProps.getHalfOpenCalls())) {
+                    rejections.increment();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "EC2 in " + region.id() + " is degraded; try again later");
+                }
+                if (state == State.HALF_OPEN) {
+                    probes++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Give back an acquired call that never reached EC2.
+         */
+        void release() {
+            if (!breakerProps.isEnabled()) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN && probes > 0) {
+                    probes--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void record(Throwable failure) {
+            boolean degraded = failure != null && isDegraded(failure);
+            (degraded ? failures : successes).increment();
+            if (!breakerProps.isEnabled()) {
+                return;
+            }
+            lock.lock();
+            try {
+                switch (state) {
+                    case HALF_OPEN -> {
+                        if (degraded) {
+                            open();
+                        } else if (++probeSuccesses >= breakerProps.getHalfOpenCalls()) {
+                            transition(State.CLOSED);
+                        }
+                    }
+                    case CLOSED -> {
+                        if (recorded == window.length && window[next]) {
+                            failed--;
+                        }
+                        window[next] = degraded;
+                        next = (next + 1) % window.length;
+                        recorded = Math.min(recorded + 1, window.length);
+                        if (degraded) {
+                            failed++;
+                        }
+                        if (recorded >= breakerProps.getMinimumCalls()
+                                && failed >= breakerProps.getFailureRateThreshold() * recorded) {
+                            open();
+                        }
+                    }
+                    case OPEN -> {
+                        // calls admitted before the circuit opened
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void open() {
+            openUntil = System.nanoTime() + breakerProps.getOpenDuration().toNanos();
+            transition(State.OPEN);
+        }
+
+        private void transition(State to) {
+            log.warn("EC2 circuit for {} {} -> {}", region.id(), state, to);
+            state = to;
+            probes = 0;
+            probeSuccesses = 0;
+            if (to == State.CLOSED) {
+                recorded = 0;
+                next = 0;
+                failed = 0;
+            }
+        }
+    }
+}
@@ -15,96 +15,116 @@
 
 package com.netz_ai.aws_controller.service.aws;
 
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.dto.aws.InstanceStateResponse;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
-import software.amazon.awssdk.core.retry.backoff.FixedDelayBackoffStrategy;
-import software.amazon.awssdk.core.waiters.WaiterOverrideConfiguration;
-import software.amazon.awssdk.core.waiters.WaiterResponse;
-import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.ec2.model.*;
-import software.amazon.awssdk.services.ec2.waiters.Ec2Waiter;
-import software.amazon.awssdk.services.ssm.SsmClient;
-import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
-import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Blocking EC2 operations. Methods taking {@code regionOpt} work in that region (default: {@code aws.region})
+ * through the {@link AwsClientRegistry}; every EC2 call is rate limited and guarded by {@link Ec2Resilience}.
+ */
 @Service
 @RequiredArgsConstructor
 public class Ec2Service {
-    private final Ec2Client ec2;
-    private final SsmClient ssm;
-
-    @Value("${aws.al2Param}")
-    private String al2Param;
-
-    @Value("${aws.al2023Param}")
-    private String al2023Param;
+    private final AwsClientRegistry clients;
+    private final AmiCache amiCache;
+    private final InstanceStatePoller poller;
+    private final InstanceInventory inventory;
+    private final InstanceStateCache stateCache;
+    private final Ec2Resilience resilience;
+    private final WarmPool warmPool;
+    private final LaunchTemplates launchTemplates;
 
     public RunInstancesResponse createEc2Instance(
+            Optional<String> regionOpt,
             Optional<String> nameOpt,
             Optional<String> keyNameOpt,
             boolean useAl2023,
             Optional<String> overrideAmi,
             Optional<String> instanceTypeStr,
             Optional<String> userDataPlain,
-            Optional<List<String>> securityGroupIdsOpt) {
-
-        String imageId = overrideAmi.orElseGet(() -> fetchLatestAmazonLinuxAmi(useAl2023));
-        // Resolve instance type (default t2.micro) free tier
-        InstanceType instanceType = InstanceType.T2_MICRO;
-        if (instanceTypeStr.isPresent() && !instanceTypeStr.get().isBlank()) {
-            try {
-                // AWS SDK v2 enum expects exact value (e.g., "t3.micro")
-                instanceType = InstanceType.fromValue(instanceTypeStr.get());
-            } catch (IllegalArgumentException ex) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                        "Unsupported instanceType: " + instanceTypeStr.get());
-            }
-        }
+            Optional<List<String>> securityGroupIdsOpt,
+            Optional<String> clientTokenOpt) {
 
-        RunInstancesRequest.Builder req = RunInstancesRequest.builder()
-                .imageId(imageId)
-                .instanceType(instanceType)
-                .minCount(1)
-                .maxCount(1);
+        // Name tag (optional) goes in as a TagSpecification of the same RunInstances call
+        return launchFleet(regionOpt, 1, Optional.empty(), nameOpt, keyNameOpt, useAl2023, overrideAmi,
+                instanceTypeStr, userDataPlain, securityGroupIdsOpt, Map.of(), clientTokenOpt);
+    }
 
-        keyNameOpt.filter(s -> !s.isBlank()).ifPresent(req::keyName);
+    /**
+     * Launch {@code count} identical instances with a single RunInstances call.
+     * Tags (including the optional Name tag) are applied through TagSpecifications in the same request,
+     * and the returned reservation already describes every launched instance.
+     * @param regionOpt region to launch in (default: {@code aws.region})
+     * @param count number of instances to launch
+     * @param minCountOpt minimum acceptable number of instances (defaults to {@code count}, i.e. all-or-nothing)
+     * @param tags additional tags applied to every instance
+     * @param clientTokenOpt RunInstances client token; EC2 returns the original reservation for a repeated token
+     * @return the RunInstances response for the whole reservation
+     */
+    public RunInstancesResponse launchFleet(
+            Optional<String> regionOpt,
+            int count,
+            Optional<Integer> minCountOpt,
+            Optional<String> nameOpt,
+            Optional<String> keyNameOpt,
+            boolean useAl2023,
+            Optional<String> overrideAmi,
+            Optional<String> instanceTypeStr,
+            Optional<String> userDataPlain,
+            Optional<List<String>> securityGroupIdsOpt,
+            Map<String, String> tags,
+            Optional<String> clientTokenOpt) {
 
-        // Security group IDs (VPC). If omitted -> default security group is used.
-        securityGroupIdsOpt
-                .filter(list -> !list.isEmpty())
-                .ifPresent(req::securityGroupIds);
+        int minCount = minCountOpt.orElse(count);
+        if (count < 1 || minCount < 1 || minCount > count) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "minCount must be between 1 and count (" + count + ")");
+        }
 
-        // User data: EC2 API expects base64-encoded content; accept plain text and encode here.
-        userDataPlain.filter(s -> !s.isBlank()).ifPresent(s -> {
-            String b64 = Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8));
-            req.userData(b64);
+        Region region = clients.resolve(regionOpt);
+        String imageId = overrideAmi.orElseGet(() -> fetchLatestAmazonLinuxAmi(region, useAl2023));
+
+        InstanceType instanceType = Ec2Requests.resolveInstanceType(instanceTypeStr);
+        RunInstancesRequest.Builder req = join(launchTemplates.resolve(
+                        region, imageId, instanceType, keyNameOpt, securityGroupIdsOpt, userDataPlain))
+                .map(template -> Ec2Requests.runInstances(template, nameOpt, tags, minCount, count))
+                .orElseGet(() -> Ec2Requests.runInstances(
+                        imageId, nameOpt, keyNameOpt, instanceTypeStr, userDataPlain, securityGroupIdsOpt,
+                        tags, minCount, count));
+        clientTokenOpt.map(IdempotentLaunches::clientToken).ifPresent(req::clientToken);
+
+        RunInstancesResponse resp = resilience.call(region, "RunInstances",
+                () -> clients.ec2(region).runInstances(req.build()));
+        resp.instances().forEach(i -> {
+            stateCache.put(i);
+            inventory.record(i, "launch");
         });
-
-        RunInstancesResponse run = ec2.runInstances(req.build());
-
-        String instanceId = run.instances().getFirst().instanceId();
-
-        // Name tag (optional)
-        nameOpt.filter(s -> !s.isBlank()).ifPresent(name ->
-                ec2.createTags(CreateTagsRequest.builder()
-                        .resources(instanceId)
-                        .tags(Tag.builder().key("Name").value(name).build())
-                        .build())
-        );
-
-        return run;
+        return resp;
     }
 
+    /**
+     * Launch an instance and block until it is running. A matching instance from the {@link WarmPool} is
+     * claimed instead when one is available, unless a client token asks for an idempotent launch.
+     */
     public Instance createAndWaitRunning(
+            Optional<String> regionOpt,
             Optional<String> nameOpt,
             Optional<String> keyNameOpt,
             boolean useAl2023,
@@ -112,97 +132,121 @@ public class Ec2Service {
             Optional<String> instanceTypeStr,
             Optional<String> userDataPlain,
             Optional<List<String>> securityGroupIdsOpt,
+            Optional<String> clientTokenOpt,
             Duration timeout,
             Duration pollInterval) {
 
+        if (clientTokenOpt.isEmpty()) {
+            // a claimed instance is not tied to the token, so a retry would claim (or launch) another one
+            Optional<Instance> warm = join(warmPool.claim(clients.resolve(regionOpt), nameOpt, keyNameOpt, useAl2023,
+                    overrideAmi, instanceTypeStr, userDataPlain, securityGroupIdsOpt));
+            if (warm.isPresent()) {
+                return warm.get();
+            }
+        }
+
         var run = createEc2Instance(
-                nameOpt, keyNameOpt, useAl2023, overrideAmi,
-                instanceTypeStr, userDataPlain, securityGroupIdsOpt);
+                regionOpt, nameOpt, keyNameOpt, useAl2023, overrideAmi,
+                instanceTypeStr, userDataPlain, securityGroupIdsOpt, clientTokenOpt);
 
         String instanceId = run.instances().getFirst().instanceId();
 
         // Block until 'running'
-        return waitUntilRunning(instanceId, timeout, pollInterval);
+        return waitUntilRunning(regionOpt, instanceId, timeout, pollInterval);
     }
 
-    private String fetchLatestAmazonLinuxAmi(boolean useAl2023) {
-        String param = useAl2023 ? al2023Param : al2Param;
-        GetParameterResponse resp = ssm.getParameter(GetParameterRequest.builder()
-                .name(param)
-                .build());
-        return resp.parameter().value(); // ami-xxxx
+    private String fetchLatestAmazonLinuxAmi(Region region, boolean useAl2023) {
+        return join(amiCache.latestAmazonLinux(region, useAl2023)); // ami-xxxx
     }
 
-    public String getInstanceStateName(String instanceId) {
-        Instance i = describeInstance(instanceId);
+    public String getInstanceStateName(Optional<String> regionOpt, String instanceId) {
+        Instance i = describeInstance(regionOpt, instanceId);
         return i.state().nameAsString();
     }
 
     /**
      * Wait until the instance becomes 'running' (or timeout).
+     * The wait is served by the shared {@link InstanceStatePoller}, which batches DescribeInstances
+     * for all waiters; its tick ({@code aws.poller.interval}) replaces the per-call poll interval.
      * @param instanceId EC2 instance id
      * @param timeout total time to wait
-     * @param pollInterval delay between polls
+     * @param pollInterval kept for API compatibility; polling is driven by the shared poller
      * @return the latest Instance description when waiter finishes
-     * @throws ResponseStatusException 408 if timed out, 404 if not found
+     * @throws ResponseStatusException 408 if timed out, 404 if not found, 409 if a failure state was reached
      */
-    public Instance waitUntilRunning(String instanceId, Duration timeout, Duration pollInterval) {
-        DescribeInstancesRequest req = DescribeInstancesRequest.builder()
-                .instanceIds(instanceId)
-                .build();
-
-        Ec2Waiter waiter = Ec2Waiter.builder()
-                .client(ec2)
-                .overrideConfiguration(WaiterOverrideConfiguration.builder()
-                        .waitTimeout(timeout)
-                        .backoffStrategy(FixedDelayBackoffStrategy.create(pollInterval))
-                        .build())
-                .build();
-
-        WaiterResponse<DescribeInstancesResponse> response =
-                waiter.waitUntilInstanceRunning(req);
+    public Instance waitUntilRunning(Optional<String> regionOpt, String instanceId, Duration timeout, Duration pollInterval) {
+        return join(poller.awaitRunning(clients.resolve(regionOpt), instanceId, timeout));
+    }
 
-        if (response.matched().exception().isPresent()) {
-            // timed out or failed
-            throw new ResponseStatusException(HttpStatus.REQUEST_TIMEOUT,
-                    "Timed out waiting for instance to be running");
-        }
+    /**
+     * Instance description through the {@link InstanceStateCache}; DescribeInstances is only called on a miss.
+     */
+    public Instance describeInstance(Optional<String> regionOpt, String instanceId) {
+        return stateCache.get(clients.resolve(regionOpt), instanceId);
+    }
 
-        return describeInstance(instanceId);
+    /**
+     * Instances in the default region matching the filters, as a lazy stream over the DescribeInstances paginator:
+     * each further page of {@code pageSize} is only requested when the previous one has been consumed,
+     * and every page request goes through {@link Ec2Resilience}.
+     * @param pageSize DescribeInstances MaxResults (5..1000)
+     * @see Ec2Requests#instanceFilters(List, List, List)
+     */
+    public Stream<Instance> listInstances(List<String> states, List<String> instanceTypes, List<String> tags, int pageSize) {
+        DescribeInstancesRequest req = DescribeInstancesRequest.builder()
+                .filters(Ec2Requests.instanceFilters(states, instanceTypes, tags))
+                .maxResults(pageSize)
+                .build();
+        Region region = clients.defaultRegion();
+        Function<DescribeInstancesRequest, DescribeInstancesResponse> describe = page ->
+                resilience.call(region, "DescribeInstances", () -> clients.ec2(region).describeInstances(page));
+        return Stream.iterate(describe.apply(req), Objects::nonNull,
+                        prev -> prev.nextToken() == null || prev.nextToken().isEmpty()
+                                ? null
+                                : describe.apply(req.toBuilder().nextToken(prev.nextToken()).build()))
+                .flatMap(page -> page.reservations().stream())
+                .flatMap(reservation -> reservation.instances().stream());
     }
 
-    public Instance describeInstance(String instanceId) {
-        DescribeInstancesResponse resp = ec2.describeInstances(DescribeInstancesRequest.builder()
-                .instanceIds(instanceId)
-                .build());
-        return resp.reservations().getFirst().instances().getFirst();
+    /**
+     * Current state of the instance, answered from the {@link InstanceStateCache}, then from the
+     * {@link InstanceInventory} when its row is fresh ({@code aws.inventory.max-age}), and from DescribeInstances otherwise.
+     */
+    public InstanceStateResponse getInstanceState(Optional<String> regionOpt, String instanceId) {
+        Instance cached = stateCache.getIfPresent(instanceId);
+        if (cached != null) {
+            return InstanceStateResponse.from(cached);
+        }
+        return inventory.lookup(instanceId)
+                .orElseGet(() -> InstanceStateResponse.from(describeInstance(regionOpt, instanceId)));
     }
 
-    public TerminateInstancesResponse terminateInstance(String instanceId) {
+    public TerminateInstancesResponse terminateInstance(Optional<String> regionOpt, String instanceId) {
         TerminateInstancesRequest req = TerminateInstancesRequest.builder()
                 .instanceIds(instanceId)
                 .build();
-        return ec2.terminateInstances(req);
+        Region region = clients.resolve(regionOpt);
+        TerminateInstancesResponse resp = resilience.call(region, "TerminateInstances",
+                () -> clients.ec2(region).terminateInstances(req));
+        stateCache.invalidate(instanceId);
+        resp.terminatingInstances().forEach(change ->
+                inventory.recordState(change.instanceId(), change.currentState().nameAsString(), "terminate"));
+        return resp;
     }
 
-    public Instance waitUntilTerminated(String instanceId, Duration timeout, Duration pollInterval) {
-        Ec2Waiter waiter = Ec2Waiter.builder()
-                .client(ec2)
-                .overrideConfiguration(WaiterOverrideConfiguration.builder()
-                        .waitTimeout(timeout)
-                        .backoffStrategy(FixedDelayBackoffStrategy.create(pollInterval))
-                        .build())
-                .build();
-
-        DescribeInstancesRequest req = DescribeInstancesRequest.builder()
-                .instanceIds(instanceId)
-                .build();
+    public Instance waitUntilTerminated(Optional<String> regionOpt, String instanceId, Duration timeout, Duration pollInterval) {
+        // final description (state should be 'terminated')
+        return join(poller.awaitTerminated(clients.resolve(regionOpt), instanceId, timeout));
+    }
 
-        WaiterResponse<DescribeInstancesResponse> wr = waiter.waitUntilInstanceTerminated(req);
-        if (wr.matched().exception().isPresent()) {
-            throw new org.springframework.web.server.ResponseStatusException(
-                    HttpStatus.REQUEST_TIMEOUT, "Timed out waiting for instance to terminate");
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        return describeInstance(instanceId); // final description (state should be 'terminated')
     }
 }
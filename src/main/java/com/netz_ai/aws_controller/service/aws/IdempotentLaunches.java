@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.services.ec2.model.Ec2Exception;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Idempotency for launch endpoints. The caller's idempotency key is also sent as the RunInstances
+ * {@code ClientToken}, so EC2 itself never launches twice for one key; on top of that:
+ * <ul>
+ *     <li>concurrent requests with the same key share one in-flight future instead of each calling AWS, and</li>
+ *     <li>the result is kept for {@code aws.idempotency.ttl} (counted from the first request), so retries
+ *     return it without touching AWS.</li>
+ * </ul>
+ * Keys are scoped per endpoint. Reusing a key with a different request body is rejected with 422, and
+ * failed launches are forgotten so they can be retried.
+ * Metrics: {@code cache.gets/puts/evictions{cache=aws.idempotency}}.
+ */
+@Slf4j
+@Component
+public class IdempotentLaunches {
+    // RunInstances ClientToken: up to 64 ASCII characters
+    private static final Pattern KEY = Pattern.compile("[\\x21-\\x7E]{1,64}");
+    private static final String CACHE_NAME = "aws.idempotency";
+
+    private final Cache<String, Entry> entries;
+
+    @Value("${aws.idempotency.enabled:true}")
+    private boolean enabled;
+
+    public IdempotentLaunches(MeterRegistry meterRegistry,
+                              @Value("${aws.idempotency.max-size:10000}") long maxSize,
+                              @Value("${aws.idempotency.ttl:PT10M}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+    }
+
+    /**
+     * The idempotency key as RunInstances client token.
+     * @throws ResponseStatusException 400 if the key is not 1..64 printable ASCII characters
+     */
+    public static String clientToken(String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "idempotencyKey must be 1..64 printable ASCII characters");
+        }
+        return key;
+    }
+
+    /**
+     * Run {@code launch} once per {@code scope} and {@code key}. Without a key the launch simply runs.
+     * @param request the request body; a later request with the same key must be {@link Object#equals equal} to it
+     * @throws ResponseStatusException 422 if the key was used with a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String scope, String key, Object request,
+                                            Supplier<CompletableFuture<T>> launch) {
+        if (key == null || key.isBlank()) {
+            return launch.get();
+        }
+        clientToken(key);
+        if (!enabled) {
+            return launch.get();
+        }
+        String cacheKey = scope + '\n' + key;
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, entry);
+        if (existing != null) {
+            if (!Objects.equals(existing.request(), request)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "idempotencyKey was already used with a different request");
+            }
+            log.debug("Idempotent {} request {} served from {} result", scope, key,
+                    existing.result().isDone() ? "cached" : "in-flight");
+            return (CompletableFuture<T>) existing.result().copy();
+        }
+
+        CompletableFuture<T> launched;
+        try {
+            launched = launch.get();
+        } catch (RuntimeException e) {
+            launched = CompletableFuture.failedFuture(e);
+        }
+        launched.whenComplete((result, failure) -> {
+            if (failure == null) {
+                entry.result().complete(result);
+            } else {
+                // forget failures, so the client can retry the key
+                entries.asMap().remove(cacheKey, entry);
+                entry.result().completeExceptionally(translate(failure));
+            }
+        });
+        return (CompletableFuture<T>) entry.result().copy();
+    }
+
+    /**
+     * Blocking form of {@link #execute}; {@code launch} runs on the calling thread.
+     */
+    public <T> T call(String scope, String key, Object request, Supplier<T> launch) {
+        try {
+            return this.<T>execute(scope, key, request, () -> CompletableFuture.completedFuture(launch.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable translate(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        // EC2 remembers client tokens longer than this cache does
+        if (isParameterMismatch(cause)) {
+            return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "idempotencyKey was already used with a different request", cause);
+        }
+        return cause;
+    }
+
+    /**
+     * Whether EC2 rejected a client token that was already used with different RunInstances parameters.
+     */
+    public static boolean isParameterMismatch(Throwable failure) {
+        return failure instanceof Ec2Exception e && e.awsErrorDetails() != null
+                && "IdempotentParameterMismatch".equals(e.awsErrorDetails().errorCode());
+    }
+
+    private record Entry(Object request, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.dto.aws.CreateAndWaitResponse;
+import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import com.netz_ai.aws_controller.dto.aws.MultiInstanceLaunchResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.RunInstancesResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Launches several groups of instances at once:
+ * <ol>
+ *     <li>every group is one RunInstances call for its {@code count} identical instances, run on
+ *     {@code awsBulkExecutor} (whose size bounds the parallelism);</li>
+ *     <li>a group is launched as soon as the groups it depends on are running; independent groups start
+ *     immediately;</li>
+ *     <li>all instances are awaited together through the shared {@link InstanceStatePoller}, under one deadline.</li>
+ * </ol>
+ * A group whose dependency failed is not launched; the others are unaffected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InstanceGroupLauncher {
+    private final Ec2Service ec2Service;
+    private final InstanceStatePoller poller;
+    private final AwsClientRegistry clients;
+    @Qualifier("awsBulkExecutor")
+    private final ThreadPoolTaskExecutor awsBulkExecutor;
+
+    /**
+     * Instances sharing one launch configuration.
+     * @param name unique group name, also the Name tag of its instances
+     * @param dependsOn names of groups that must be running before this one is launched
+     */
+    public record Group(String name, CreateEc2Request request, int count, List<String> dependsOn) {
+    }
+
+    /**
+     * Launch all groups and wait until their instances are running or {@code timeout} elapses.
+     * With an idempotency key, each group's RunInstances client token is derived from the key and the group name.
+     * @throws ResponseStatusException 422 if group names are not unique, a dependency is unknown or cyclic
+     */
+    public MultiInstanceLaunchResponse launch(List<Group> groups, Optional<String> idempotencyKey, Duration timeout) {
+        List<Group> ordered = dependencyOrder(groups);
+        Instant deadline = Instant.now().plus(timeout);
+
+        Map<String, CompletableFuture<List<CompletableFuture<Instance>>>> launched = new HashMap<>();
+        Map<String, CompletableFuture<Void>> running = new HashMap<>();
+        for (Group group : ordered) {
+            CompletableFuture<?>[] dependencies = group.dependsOn().stream()
+                    .map(running::get)
+                    .toArray(CompletableFuture[]::new);
+            Optional<String> clientToken = idempotencyKey.map(key -> UUID.nameUUIDFromBytes(
+                    (key + '\n' + group.name()).getBytes(StandardCharsets.UTF_8)).toString());
+            CompletableFuture<List<CompletableFuture<Instance>>> waits = CompletableFuture.allOf(dependencies)
+                    .handle((ignored, failure) -> {
+                        if (failure != null) {
+                            throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY,
+                                    "Not launched: a dependency did not reach 'running'");
+                        }
+                        return group;
+                    })
+                    .thenApplyAsync(g -> runInstances(g, clientToken), awsBulkExecutor)
+                    .thenApply(resp -> await(group, resp, deadline));
+            launched.put(group.name(), waits);
+            running.put(group.name(), waits.thenCompose(list ->
+                    CompletableFuture.allOf(list.toArray(CompletableFuture[]::new))));
+        }
+
+        List<MultiInstanceLaunchResponse.Group> results = new ArrayList<>();
+        int requested = 0;
+        int up = 0;
+        for (Group group : groups) {
+            requested += group.count();
+            List<CreateAndWaitResponse> instances = new ArrayList<>();
+            String error = null;
+            try {
+                for (CompletableFuture<Instance> wait : join(launched.get(group.name()))) {
+                    try {
+                        instances.add(CreateAndWaitResponse.from(join(wait)));
+                    } catch (RuntimeException e) {
+                        error = describe(e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                error = describe(e);
+            }
+            up += instances.size();
+            results.add(MultiInstanceLaunchResponse.Group.builder()
+                    .name(group.name())
+                    .count(group.count())
+                    .dependsOn(group.dependsOn())
+                    .instances(instances)
+                    .error(error)
+                    .build());
+        }
+        return MultiInstanceLaunchResponse.builder()
+                .requestedCount(requested)
+                .runningCount(up)
+                .failedCount(requested - up)
+                .groups(results)
+                .build();
+    }
+
+    private RunInstancesResponse runInstances(Group group, Optional<String> clientToken) {
+        CreateEc2Request req = group.request();
+        log.debug("Launching group '{}' ({} instances)", group.name(), group.count());
+        return ec2Service.launchFleet(
+                Optional.ofNullable(req.getRegion()),
+                group.count(),
+                Optional.empty(),
+                Optional.of(group.name()),
+                Optional.ofNullable(req.getKeyName()),
+                req.getUseAl2023() == null || req.getUseAl2023(),
+                Optional.ofNullable(req.getAmiId()),
+                Optional.ofNullable(req.getInstanceType()),
+                Optional.ofNullable(req.getUserData()),
+                Optional.ofNullable(req.getSecurityGroups()),
+                Map.of(),
+                clientToken);
+    }
+
+    private List<CompletableFuture<Instance>> await(Group group, RunInstancesResponse resp, Instant deadline) {
+        Region region = clients.resolve(Optional.ofNullable(group.request().getRegion()));
+        Duration remaining = Duration.between(Instant.now(), deadline);
+        Duration timeout = remaining.isNegative() ? Duration.ZERO : remaining;
+        return resp.instances().stream()
+                .map(i -> poller.awaitRunning(region, i.instanceId(), timeout))
+                .toList();
+    }
+
+    /**
+     * Groups ordered so that every group follows its dependencies (Kahn's algorithm).
+     */
+    static List<Group> dependencyOrder(List<Group> groups) {
+        Map<String, Group> byName = new LinkedHashMap<>();
+        for (Group group : groups) {
+            if (byName.putIfAbsent(group.name(), group) != null) {
+                throw invalid("group name '" + group.name() + "' is used twice");
+            }
+        }
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (Group group : groups) {
+            for (String dependency : group.dependsOn()) {
+                if (!byName.containsKey(dependency)) {
+                    throw invalid("'" + group.name() + "' depends on unknown group '" + dependency + "'");
+                }
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(group.name());
+            }
+            pending.put(group.name(), (int) group.dependsOn().stream().distinct().count());
+        }
+        Deque<String> ready = new ArrayDeque<>();
+        pending.forEach((name, count) -> {
+            if (count == 0) {
+                ready.add(name);
+            }
+        });
+        List<Group> ordered = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            String name = ready.poll();
+            ordered.add(byName.get(name));
+            for (String dependent : dependents.getOrDefault(name, List.of()).stream().distinct().toList()) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (ordered.size() < groups.size()) {
+            throw invalid("dependencies form a cycle");
+        }
+        return ordered;
+    }
+
+    private static ResponseStatusException invalid(String reason) {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Invalid plan: " + reason);
+    }
+
+    private static String describe(RuntimeException e) {
+        if (e instanceof ResponseStatusException rse) {
+            return rse.getReason();
+        }
+        if (e instanceof AwsServiceException ase && ase.awsErrorDetails() != null) {
+            return ase.awsErrorDetails().errorCode();
+        }
+        return e.getMessage();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
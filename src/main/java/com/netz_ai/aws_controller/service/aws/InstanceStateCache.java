@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.properties.AwsProps;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesRequest;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.Reservation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Read-through cache of instance descriptions keyed by instance ID (unique across regions).
+ * <ul>
+ *     <li>Entries expire by state ({@code aws.state-cache.ttl.<state>}): seconds for {@code pending},
+ *     minutes for {@code terminated}.</li>
+ *     <li>Concurrent misses for the same ID wait on a single non-blocking DescribeInstances call; the load runs
+ *     outside Caffeine's compute, so a rate-limit wait never holds a cache lock.</li>
+ *     <li>Launch, the shared poller and waiter completion write fresh descriptions in; terminate invalidates.</li>
+ * </ul>
+ * Metrics are published as {@code cache.*{cache=aws.instance-state}}.
+ */
+@Component
+public class InstanceStateCache {
+    private final AwsClientRegistry clients;
+    private final InstanceInventory inventory;
+    private final Ec2Resilience resilience;
+    private final AwsProps.StateCache props;
+    private final AsyncCache<String, Instance> cache;
+
+    public InstanceStateCache(AwsClientRegistry clients, InstanceInventory inventory, Ec2Resilience resilience,
+                              AwsProps awsProps, MeterRegistry meterRegistry) {
+        this.clients = clients;
+        this.inventory = inventory;
+        this.resilience = resilience;
+        this.props = awsProps.getStateCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(props.getMaxSize())
+                .expireAfter(new StateExpiry())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "aws.instance-state");
+    }
+
+    /**
+     * Cached description, loading it with DescribeInstances in the default region on a miss.
+     */
+    public Instance get(String instanceId) {
+        return get(clients.defaultRegion(), instanceId);
+    }
+
+    /**
+     * Cached description, loading it with DescribeInstances in {@code region} on a miss.
+     */
+    public Instance get(Region region, String instanceId) {
+        return join(getAsync(region, instanceId));
+    }
+
+    /**
+     * Cached description, loading it with an asynchronous DescribeInstances in {@code region} on a miss.
+     * @throws ResponseStatusException (in the future) 404 if EC2 does not return the instance
+     */
+    public CompletableFuture<Instance> getAsync(Region region, String instanceId) {
+        return props.isEnabled() ? cache.get(instanceId, (id, executor) -> load(region, id)) : load(region, instanceId);
+    }
+
+    /**
+     * Cached description if present, loaded and not expired; never calls EC2 or waits for an in-flight load.
+     */
+    public Instance getIfPresent(String instanceId) {
+        CompletableFuture<Instance> future = props.isEnabled() ? cache.getIfPresent(instanceId) : null;
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    public void put(Instance instance) {
+        if (props.isEnabled()) {
+            cache.put(instance.instanceId(), CompletableFuture.completedFuture(instance));
+        }
+    }
+
+    public void invalidate(String instanceId) {
+        cache.synchronous().invalidate(instanceId);
+    }
+
+    private CompletableFuture<Instance> load(Region region, String instanceId) {
+        return resilience.callAsync(region, "DescribeInstances", () -> clients.ec2Async(region)
+                        .describeInstances(DescribeInstancesRequest.builder()
+                                .instanceIds(instanceId)
+                                .build()))
+                .thenApply(resp -> {
+                    Instance instance = resp.reservations().stream()
+                            .map(Reservation::instances)
+                            .flatMap(List::stream)
+                            .findFirst()
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Instance not found"));
+                    inventory.record(instance, "describe");
+                    return instance;
+                });
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Duration ttl(Instance instance) {
+        return props.getTtl().getOrDefault(instance.state().nameAsString(), props.getDefaultTtl());
+    }
+
+    private final class StateExpiry implements Expiry<String, Instance> {
+        @Override
+        public long expireAfterCreate(String key, Instance value, long currentTime) {
+            return ttl(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Instance value, long currentTime, long currentDuration) {
+            return ttl(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Instance value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesRequest;
+import software.amazon.awssdk.services.ec2.model.Filter;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.InstanceStateName;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central instance-state poller. Instead of one waiter per instance polling DescribeInstances on its own,
+ * every registered wait is served by a single batched DescribeInstances per region and tick, whose results
+ * are fanned out to the registered waiters.
+ * <p>
+ * Ticks are {@code aws.poller.interval} apart with ±10% jitter. While polls fail (throttled, EC2 degraded),
+ * the delay backs off exponentially with full jitter up to {@code aws.poller.max-interval}; the current
+ * delay is published as {@code aws.poller.delay}. Each wait times out on its own timer, independent of ticks.
+ */
+@Slf4j
+@Component
+public class InstanceStatePoller {
+    private static final Set<InstanceStateName> RUNNING_FAILURES = EnumSet.of(
+            InstanceStateName.SHUTTING_DOWN, InstanceStateName.TERMINATED, InstanceStateName.STOPPING);
+    private static final Set<InstanceStateName> TERMINATED_FAILURES = EnumSet.of(
+            InstanceStateName.PENDING, InstanceStateName.STOPPING);
+
+    private final AwsClientRegistry clients;
+    private final ScheduledExecutorService awsWaiterScheduler;
+    private final InstanceInventory inventory;
+    private final InstanceStateCache stateCache;
+    private final Ec2Resilience resilience;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicLong delayMillis = new AtomicLong();
+    private volatile boolean stopped;
+    private volatile ScheduledFuture<?> task;
+    private int consecutiveFailures;
+
+    @Value("${aws.poller.interval:PT2S}")
+    private Duration interval;
+
+    @Value("${aws.poller.max-interval:PT30S}")
+    private Duration maxInterval;
+
+    // DescribeInstances accepts up to 200 values per filter
+    @Value("${aws.poller.batch-size:200}")
+    private int batchSize;
+
+    public InstanceStatePoller(AwsClientRegistry clients,
+                               ScheduledExecutorService awsWaiterScheduler,
+                               InstanceInventory inventory,
+                               InstanceStateCache stateCache,
+                               Ec2Resilience resilience,
+                               MeterRegistry meterRegistry) {
+        this.clients = clients;
+        this.awsWaiterScheduler = awsWaiterScheduler;
+        this.inventory = inventory;
+        this.stateCache = stateCache;
+        this.resilience = resilience;
+        Gauge.builder("aws.poller.delay", delayMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        schedule(nextDelay(true));
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        ScheduledFuture<?> current = task;
+        if (current != null) {
+            current.cancel(false);
+        }
+    }
+
+    private void schedule(long delay) {
+        if (stopped) {
+            return;
+        }
+        delayMillis.set(delay);
+        task = awsWaiterScheduler.schedule(() -> {
+            boolean healthy = tick();
+            schedule(nextDelay(healthy));
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Jittered interval while polls succeed; after failures, exponential backoff with full jitter.
+     * Only called from the (single, self-rescheduling) poll task.
+     */
+    private long nextDelay(boolean healthy) {
+        long base = interval.toMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (healthy) {
+            consecutiveFailures = 0;
+            return base + random.nextLong(-base / 10, base / 10 + 1);
+        }
+        consecutiveFailures = Math.min(consecutiveFailures + 1, 20);
+        long cap = Math.min(maxInterval.toMillis(), base << consecutiveFailures);
+        return base + random.nextLong(Math.max(1, cap - base + 1));
+    }
+
+    public CompletableFuture<Instance> awaitRunning(String instanceId, Duration timeout) {
+        return awaitRunning(clients.defaultRegion(), instanceId, timeout);
+    }
+
+    public CompletableFuture<Instance> awaitRunning(Region region, String instanceId, Duration timeout) {
+        return await(region, instanceId, EnumSet.of(InstanceStateName.RUNNING), RUNNING_FAILURES, timeout);
+    }
+
+    public CompletableFuture<Instance> awaitTerminated(String instanceId, Duration timeout) {
+        return awaitTerminated(clients.defaultRegion(), instanceId, timeout);
+    }
+
+    public CompletableFuture<Instance> awaitTerminated(Region region, String instanceId, Duration timeout) {
+        return await(region, instanceId, EnumSet.of(InstanceStateName.TERMINATED), TERMINATED_FAILURES, timeout);
+    }
+
+    /**
+     * Register interest in an instance of {@code region} reaching one of {@code targets}.
+     * The future completes with the instance description observed by the poller, or exceptionally with
+     * 409 if a failure state was reached, and after {@code timeout} with 404 if EC2 answered the latest poll
+     * without the instance, 503 if that poll failed, and 408 otherwise.
+     */
+    public CompletableFuture<Instance> await(Region region,
+                                             String instanceId,
+                                             Set<InstanceStateName> targets,
+                                             Set<InstanceStateName> failures,
+                                             Duration timeout) {
+        Waiter waiter = new Waiter(region, instanceId, targets, failures, new CompletableFuture<>());
+        waiters.add(waiter);
+        ScheduledFuture<?> expiry =
+                awsWaiterScheduler.schedule(waiter::expire, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        waiter.getFuture().whenComplete((instance, failure) -> expiry.cancel(false));
+        return waiter.getFuture();
+    }
+
+    /**
+     * Number of waits currently registered.
+     */
+    public int pendingWaits() {
+        return waiters.size();
+    }
+
+    /**
+     * One poll round.
+     * @return false if DescribeInstances failed in any region, so the next round backs off
+     */
+    boolean tick() {
+        boolean healthy = true;
+        try {
+            waiters.removeIf(w -> w.getFuture().isDone());
+            if (waiters.isEmpty()) {
+                return true;
+            }
+            Map<Region, List<String>> idsByRegion = new HashMap<>();
+            waiters.forEach(w -> idsByRegion.computeIfAbsent(w.getRegion(), r -> new ArrayList<>()).add(w.getInstanceId()));
+            Map<String, Instance> observed = new HashMap<>();
+            Set<String> answered = new HashSet<>();
+            for (Map.Entry<Region, List<String>> entry : idsByRegion.entrySet()) {
+                try {
+                    describe(entry.getKey(), entry.getValue().stream().distinct().toList(), observed, answered);
+                } catch (RuntimeException ex) {
+                    // one unreachable region must not stall the waits in the others
+                    log.warn("Instance state poll in {} failed: {}", entry.getKey().id(), ex.toString());
+                    healthy = false;
+                }
+            }
+            observed.values().forEach(i -> {
+                stateCache.put(i); // also covers waiter completion: the cache holds the final description
+                inventory.record(i, "poller");
+            });
+
+            for (Waiter waiter : waiters) {
+                waiter.answered = answered.contains(waiter.getInstanceId());
+                Instance instance = observed.get(waiter.getInstanceId());
+                if (instance != null) {
+                    waiter.seen = true;
+                    InstanceStateName state = instance.state().name();
+                    if (waiter.getTargets().contains(state)) {
+                        waiter.getFuture().complete(instance);
+                    } else if (waiter.getFailures().contains(state)) {
+                        waiter.getFuture().completeExceptionally(new ResponseStatusException(HttpStatus.CONFLICT,
+                                "Instance reached state '" + state + "' while waiting for " + waiter.getTargets()));
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            // keep the schedule alive; waiters time out on their own timers
+            log.warn("Instance state poll failed: {}", ex.toString());
+            healthy = false;
+        }
+        return healthy;
+    }
+
+    /**
+     * Describe {@code ids} in batches; IDs whose batch EC2 answered are added to {@code answered}.
+     */
+    private void describe(Region region, List<String> ids, Map<String, Instance> observed, Set<String> answered) {
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            // A filter (instead of instanceIds) does not fail the whole batch when one ID is not visible yet
+            DescribeInstancesRequest req = DescribeInstancesRequest.builder()
+                    .filters(Filter.builder().name("instance-id").values(chunk).build())
+                    .build();
+            resilience.call(region, "DescribeInstances", () -> {
+                clients.ec2(region).describeInstancesPaginator(req).reservations().forEach(reservation ->
+                        reservation.instances().forEach(i -> observed.put(i.instanceId(), i)));
+                return null;
+            });
+            answered.addAll(chunk);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Waiter {
+        private final Region region;
+        private final String instanceId;
+        private final Set<InstanceStateName> targets;
+        private final Set<InstanceStateName> failures;
+        private final CompletableFuture<Instance> future;
+        private volatile boolean seen;
+        // whether EC2 answered the latest poll for this instance (null before the first poll);
+        // a degraded EC2 must not look like a missing instance
+        private volatile Boolean answered;
+
+        void expire() {
+            if (seen || answered == null) {
+                future.completeExceptionally(new ResponseStatusException(HttpStatus.REQUEST_TIMEOUT,
+                        "Timed out waiting for instance to reach " + targets));
+            } else if (answered) {
+                future.completeExceptionally(new ResponseStatusException(HttpStatus.NOT_FOUND, "Instance not found"));
+            } else {
+                future.completeExceptionally(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "EC2 in " + region.id() + " did not answer state polls before the timeout"));
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.properties.AwsProps;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.Ec2AsyncClient;
+import software.amazon.awssdk.services.ec2.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * EC2 launch templates for frequently used launch shapes (AMI, instance type, key pair, security groups, userData).
+ * <ul>
+ *     <li>Once a shape has been launched {@code aws.launch-templates.min-uses} times, it is stored as a launch
+ *     template and later launches send only the template reference plus overrides (count, tags, client token)
+ *     instead of the full request with its Base64-encoded userData.</li>
+ *     <li>Templates are named by a hash of instance type, key pair and security groups
+ *     ({@code aws-controller-<hash>}); each distinct AMI / userData becomes a version whose description is the
+ *     SHA-256 of the content, so a restarted or second deployment finds the same version instead of adding one.</li>
+ *     <li>Resolved template versions are cached locally; {@link #invalidateAll()} is the one place to drop them.</li>
+ * </ul>
+ * Metrics are published as {@code cache.*{cache=aws.launch-templates}}.
+ */
+@Slf4j
+@Component
+public class LaunchTemplates {
+    static final String MANAGED_TAG = "aws-controller:managed";
+    private static final String NAME_PREFIX = "aws-controller-";
+
+    private final AwsClientRegistry clients;
+    private final Ec2Resilience resilience;
+    private final AwsProps.LaunchTemplates props;
+    private final Cache<Shape, AtomicInteger> uses;
+    private final AsyncCache<Shape, LaunchTemplateSpecification> templates;
+    private volatile boolean disabled;
+
+    public LaunchTemplates(AwsClientRegistry clients,
+                           Ec2Resilience resilience,
+                           AwsProps awsProps,
+                           MeterRegistry meterRegistry) {
+        this.clients = clients;
+        this.resilience = resilience;
+        this.props = awsProps.getLaunchTemplates();
+        this.uses = Caffeine.newBuilder()
+                .maximumSize(props.getMaxSize())
+                .expireAfterAccess(props.getTtl())
+                .build();
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(props.getMaxSize())
+                .expireAfterAccess(props.getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, templates.synchronous(), "aws.launch-templates");
+    }
+
+    /**
+     * Launch template version for the shape, creating it once the shape is used often enough.
+     * @return the template to launch from, or empty to send the full RunInstances request
+     */
+    public CompletableFuture<Optional<LaunchTemplateSpecification>> resolve(Region region,
+                                                                            String imageId,
+                                                                            InstanceType instanceType,
+                                                                            Optional<String> keyNameOpt,
+                                                                            Optional<List<String>> securityGroupIdsOpt,
+                                                                            Optional<String> userDataPlain) {
+        if (!props.isEnabled() || disabled) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        Shape shape = new Shape(region, imageId, instanceType,
+                keyNameOpt.filter(s -> !s.isBlank()).orElse(null),
+                securityGroupIdsOpt.filter(l -> !l.isEmpty()).map(l -> l.stream().sorted().toList()).orElse(List.of()),
+                userDataPlain.filter(s -> !s.isBlank()).orElse(null));
+        CompletableFuture<LaunchTemplateSpecification> cached = templates.getIfPresent(shape);
+        if (cached == null && uses.get(shape, s -> new AtomicInteger()).incrementAndGet() < props.getMinUses()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return (cached != null ? cached : templates.get(shape, (s, executor) -> load(s)))
+                .handle((template, failure) -> {
+                    if (failure != null) {
+                        onFailure(shape, failure);
+                        return Optional.empty();
+                    }
+                    return Optional.of(template);
+                });
+    }
+
+    /**
+     * Drop every cached template version; the next launches look them up (or create them) again.
+     */
+    public void invalidateAll() {
+        templates.synchronous().invalidateAll();
+        uses.invalidateAll();
+        disabled = false;
+    }
+
+    // A template created concurrently by another deployment fails this load with AlreadyExists;
+    // that launch sends the full request and the next one finds the template.
+    private CompletableFuture<LaunchTemplateSpecification> load(Shape shape) {
+        String name = NAME_PREFIX + sha256(shape.instanceType() + "\n" + shape.keyName() + "\n"
+                + String.join(",", shape.securityGroupIds())).substring(0, 16);
+        String contentHash = "sha256:" + sha256(shape.imageId() + "\n" + shape.userData());
+        RequestLaunchTemplateData data = data(shape);
+        return ec2(shape.region(), "DescribeLaunchTemplates", ec2 -> ec2.describeLaunchTemplates(b -> b
+                        .launchTemplateNames(name)))
+                .handle((resp, failure) -> failure == null ? resp.launchTemplates().getFirst() : notFound(failure))
+                .thenCompose(template -> template == null
+                        ? create(shape.region(), name, contentHash, data)
+                        : findOrAddVersion(shape.region(), template.launchTemplateId(), contentHash, data));
+    }
+
+    private CompletableFuture<LaunchTemplateSpecification> create(Region region, String name, String contentHash,
+                                                                  RequestLaunchTemplateData data) {
+        log.info("Creating launch template {} in {}", name, region.id());
+        return ec2(region, "CreateLaunchTemplate", ec2 -> ec2.createLaunchTemplate(b -> b
+                        .launchTemplateName(name)
+                        .versionDescription(contentHash)
+                        .launchTemplateData(data)
+                        .tagSpecifications(TagSpecification.builder()
+                                .resourceType(ResourceType.LAUNCH_TEMPLATE)
+                                .tags(Tag.builder().key(MANAGED_TAG).value("true").build())
+                                .build())))
+                .thenApply(resp -> spec(resp.launchTemplate().launchTemplateId(),
+                        resp.launchTemplate().latestVersionNumber()));
+    }
+
+    private CompletableFuture<LaunchTemplateSpecification> findOrAddVersion(Region region, String templateId,
+                                                                            String contentHash,
+                                                                            RequestLaunchTemplateData data) {
+        return ec2(region, "DescribeLaunchTemplateVersions", ec2 -> {
+            CompletableFuture<Optional<Long>> found = new CompletableFuture<>();
+            ec2.describeLaunchTemplateVersionsPaginator(b -> b.launchTemplateId(templateId))
+                    .launchTemplateVersions()
+                    .filter(v -> contentHash.equals(v.versionDescription()))
+                    .limit(1)
+                    .subscribe(v -> found.complete(Optional.of(v.versionNumber())))
+                    .whenComplete((ignored, failure) -> {
+                        if (failure != null) {
+                            found.completeExceptionally(failure);
+                        } else {
+                            found.complete(Optional.empty());
+                        }
+                    });
+            return found;
+        }).thenCompose(version -> version.isPresent()
+                ? CompletableFuture.completedFuture(spec(templateId, version.get()))
+                : ec2(region, "CreateLaunchTemplateVersion", ec2 -> ec2.createLaunchTemplateVersion(b -> b
+                                .launchTemplateId(templateId)
+                                .versionDescription(contentHash)
+                                .launchTemplateData(data)))
+                        .thenApply(resp -> spec(templateId, resp.launchTemplateVersion().versionNumber())));
+    }
+
+    private static RequestLaunchTemplateData data(Shape shape) {
+        RequestLaunchTemplateData.Builder data = RequestLaunchTemplateData.builder()
+                .imageId(shape.imageId())
+                .instanceType(shape.instanceType());
+        if (shape.keyName() != null) {
+            data.keyName(shape.keyName());
+        }
+        if (!shape.securityGroupIds().isEmpty()) {
+            data.securityGroupIds(shape.securityGroupIds());
+        }
+        if (shape.userData() != null) {
+            data.userData(Ec2Requests.encodeUserData(shape.userData()));
+        }
+        return data.build();
+    }
+
+    private static LaunchTemplateSpecification spec(String templateId, Long version) {
+        return LaunchTemplateSpecification.builder()
+                .launchTemplateId(templateId)
+                .version(String.valueOf(version))
+                .build();
+    }
+
+    private static LaunchTemplate notFound(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof Ec2Exception e && e.awsErrorDetails() != null
+                && "InvalidLaunchTemplateName.NotFoundException".equals(e.awsErrorDetails().errorCode())) {
+            return null;
+        }
+        throw cause instanceof RuntimeException re ? re : new CompletionException(cause);
+    }
+
+    private void onFailure(Shape shape, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof Ec2Exception e && e.awsErrorDetails() != null
+                && "UnauthorizedOperation".equals(e.awsErrorDetails().errorCode())) {
+            // missing ec2:*LaunchTemplate* permissions: stop trying until invalidated
+            log.warn("Launch templates disabled, not authorized: {}", e.getMessage());
+            disabled = true;
+        } else {
+            log.warn("Launch template for {} in {} unavailable, sending the full request: {}",
+                    shape.instanceType(), shape.region().id(), cause.toString());
+        }
+    }
+
+    private <T> CompletableFuture<T> ec2(Region region, String action, Function<Ec2AsyncClient, CompletableFuture<T>> call) {
+        return resilience.callAsync(region, action, () -> call.apply(clients.ec2Async(region)));
+    }
+
+    private static String sha256(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Launch parameters held by a template. The userData is kept as plain text, so a cache hit costs a hash and an
+     * equality check instead of Base64 encoding or SHA-256.
+     */
+    private record Shape(Region region,
+                         String imageId,
+                         InstanceType instanceType,
+                         String keyName,
+                         List<String> securityGroupIds,
+                         String userData) {
+    }
+}
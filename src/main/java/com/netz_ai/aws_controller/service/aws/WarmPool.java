@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.properties.AwsProps;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.Ec2AsyncClient;
+import software.amazon.awssdk.services.ec2.model.*;
+import software.amazon.awssdk.services.ssm.model.SendCommandRequest;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Optional pool of pre-launched instances in the default region, per profile ({@code aws.warm-pool.profiles}).
+ * <ul>
+ *     <li>{@link #claim} takes a matching pooled instance atomically, re-tags it for the request, starts it if it
+ *     was stopped, optionally runs the request's userData through SSM and returns its description. Without a
+ *     match the caller launches as usual.</li>
+ *     <li>Every {@code aws.warm-pool.replenish-interval} each profile is topped up to its {@code size}; beyond
+ *     {@code max-running} pooled instances are stopped, and instances older than {@code max-idle} or built from
+ *     a superseded AMI are replaced.</li>
+ *     <li>Pooled instances carry the tag {@code aws-controller:warm-pool=<profile>}, so a restart adopts them.</li>
+ * </ul>
+ * Metrics: {@code aws.warm-pool.instances{profile,state}} and {@code aws.warm-pool.claims{profile,outcome}}.
+ */
+@Slf4j
+@Service
+public class WarmPool {
+    static final String POOL_TAG = "aws-controller:warm-pool";
+    private static final List<String> POOLED_STATES = List.of("pending", "running", "stopping", "stopped");
+    private static final CompletableFuture<Optional<Instance>> MISS = CompletableFuture.completedFuture(Optional.empty());
+
+    private final AwsClientRegistry clients;
+    private final AmiCache amiCache;
+    private final InstanceStatePoller poller;
+    private final InstanceStateCache stateCache;
+    private final InstanceInventory inventory;
+    private final Ec2Resilience resilience;
+    private final MeterRegistry meterRegistry;
+    private final AwsProps.WarmPool props;
+    private final List<ProfilePool> pools;
+    private boolean adopted;
+
+    public WarmPool(AwsClientRegistry clients,
+                    AmiCache amiCache,
+                    InstanceStatePoller poller,
+                    InstanceStateCache stateCache,
+                    InstanceInventory inventory,
+                    Ec2Resilience resilience,
+                    AwsProps awsProps,
+                    MeterRegistry meterRegistry) {
+        this.clients = clients;
+        this.amiCache = amiCache;
+        this.poller = poller;
+        this.stateCache = stateCache;
+        this.inventory = inventory;
+        this.resilience = resilience;
+        this.meterRegistry = meterRegistry;
+        this.props = awsProps.getWarmPool();
+        this.pools = props.isEnabled()
+                ? props.getProfiles().stream().filter(p -> p.getSize() > 0).map(ProfilePool::new).toList()
+                : List.of();
+    }
+
+    /**
+     * Claim a pooled instance matching the launch parameters.
+     * @return the running instance, or empty if no pooled instance matches (the caller then launches one)
+     */
+    public CompletableFuture<Optional<Instance>> claim(Region region,
+                                                       Optional<String> nameOpt,
+                                                       Optional<String> keyNameOpt,
+                                                       boolean useAl2023,
+                                                       Optional<String> overrideAmi,
+                                                       Optional<String> instanceTypeStr,
+                                                       Optional<String> userDataPlain,
+                                                       Optional<List<String>> securityGroupIdsOpt) {
+        if (pools.isEmpty() || !region.equals(clients.defaultRegion())) {
+            return MISS;
+        }
+        String instanceType = Ec2Requests.resolveInstanceType(instanceTypeStr).toString();
+        Optional<String> userData = userDataPlain.filter(s -> !s.isBlank());
+        List<ProfilePool> candidates = pools.stream()
+                .filter(p -> p.matches(instanceType, keyNameOpt, securityGroupIdsOpt, userData))
+                .toList();
+        if (candidates.isEmpty()) {
+            return MISS;
+        }
+        CompletableFuture<String> imageId = overrideAmi.filter(s -> !s.isBlank())
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> amiCache.latestAmazonLinux(region, useAl2023));
+        return imageId.thenCompose(ami -> {
+            for (ProfilePool pool : candidates) {
+                Optional<String> script = pool.ssmScript(userData);
+                // SSM needs a booted agent, so claims running a script only take running instances
+                Pooled pooled = pool.take(ami, script.isPresent());
+                if (pooled != null) {
+                    return activate(region, pool, pooled, nameOpt, script);
+                }
+            }
+            candidates.forEach(p -> p.claims("miss").increment());
+            return MISS;
+        });
+    }
+
+    private CompletableFuture<Optional<Instance>> activate(Region region,
+                                                          ProfilePool pool,
+                                                          Pooled pooled,
+                                                          Optional<String> nameOpt,
+                                                          Optional<String> userData) {
+        String id = pooled.instanceId();
+        log.debug("Claiming {} instance {} from warm pool '{}'", pooled.running() ? "running" : "stopped", id,
+                pool.profile.getName());
+        Optional<String> name = nameOpt.filter(s -> !s.isBlank());
+        // without a requested name, drop the pool's warm-pool-<profile> Name as well, like a fresh unnamed launch
+        List<Tag> poolTags = name.isPresent()
+                ? List.of(Tag.builder().key(POOL_TAG).build())
+                : List.of(Tag.builder().key(POOL_TAG).build(), Tag.builder().key(Ec2Requests.NAME_TAG).build());
+        CompletableFuture<?> tagged = ec2(region, "DeleteTags", ec2 -> ec2.deleteTags(b -> b
+                        .resources(id)
+                        .tags(poolTags)))
+                .thenCompose(ignored -> name
+                        .map(n -> ec2(region, "CreateTags", ec2 -> ec2.createTags(b -> b
+                                .resources(id)
+                                .tags(Tag.builder().key(Ec2Requests.NAME_TAG).value(n).build()))))
+                        .orElseGet(() -> CompletableFuture.completedFuture(null)));
+        CompletableFuture<Instance> running = pooled.running()
+                ? tagged.thenCompose(ignored -> ec2(region, "DescribeInstances", ec2 -> ec2.describeInstances(b -> b
+                        .instanceIds(id))))
+                        .thenApply(resp -> resp.reservations().getFirst().instances().getFirst())
+                : tagged.thenCompose(ignored -> ec2(region, "StartInstances", ec2 -> ec2.startInstances(b -> b
+                        .instanceIds(id))))
+                        .thenCompose(ignored -> poller.awaitRunning(region, id, props.getWaitTimeout()));
+        return running
+                .thenCompose(instance -> userData
+                        .map(script -> runUserData(region, id, script).thenApply(ignored -> instance))
+                        .orElseGet(() -> CompletableFuture.completedFuture(instance)))
+                .handle((instance, failure) -> {
+                    if (failure != null) {
+                        // the instance left the pool in an unknown state; do not hand it out
+                        log.warn("Warm pool claim of {} failed, falling back to a launch: {}", id, failure.toString());
+                        pool.claims("failed").increment();
+                        terminate(region, id);
+                        return Optional.empty();
+                    }
+                    pool.claims("hit").increment();
+                    stateCache.put(instance);
+                    inventory.record(instance, "warm-pool");
+                    return Optional.of(instance);
+                });
+    }
+
+    private CompletableFuture<?> runUserData(Region region, String instanceId, String script) {
+        return resilience.callAsync(region, "SendCommand", () -> clients.ssmAsync(region)
+                .sendCommand(SendCommandRequest.builder()
+                        .instanceIds(instanceId)
+                        .documentName("AWS-RunShellScript")
+                        .parameters(Map.of("commands", List.of(script)))
+                        .comment("userData of warm pool claim")
+                        .build()));
+    }
+
+    /**
+     * Top every profile up to its size and apply the idle limits. Launches are capped per round
+     * ({@code max-launch-per-round}) and in total ({@code max-instances}).
+     */
+    @Scheduled(fixedDelayString = "${aws.warm-pool.replenish-interval:PT30S}")
+    void replenish() {
+        if (pools.isEmpty()) {
+            return;
+        }
+        Region region = clients.defaultRegion();
+        try {
+            if (!adopted) {
+                adopt(region);
+                adopted = true;
+            }
+            int budget = props.getMaxInstances() - pools.stream().mapToInt(ProfilePool::size).sum();
+            for (ProfilePool pool : pools) {
+                budget -= replenish(region, pool, Math.max(0, budget));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Warm pool replenish failed: {}", e.toString());
+        }
+    }
+
+    private int replenish(Region region, ProfilePool pool, int budget) {
+        AwsProps.WarmPool.Profile profile = pool.profile;
+        String imageId = StringUtils.hasText(profile.getAmi())
+                ? profile.getAmi()
+                : amiCache.latestAmazonLinux(region, profile.isUseAl2023()).join();
+
+        Instant staleBefore = Instant.now().minus(profile.getMaxIdle());
+        for (Deque<Pooled> deque : List.of(pool.running, pool.stopped)) {
+            for (Pooled p : deque) {
+                if ((!p.imageId().equals(imageId) || p.since().isBefore(staleBefore)) && deque.remove(p)) {
+                    log.info("Retiring {} from warm pool '{}'", p.instanceId(), profile.getName());
+                    terminate(region, p.instanceId());
+                }
+            }
+        }
+        // idle cost: only max-running pooled instances keep running, the others wait stopped
+        while (pool.running.size() > profile.getMaxRunning()) {
+            Pooled p = pool.running.pollLast();
+            if (p == null) {
+                break;
+            }
+            pool.pending.incrementAndGet();
+            park(region, pool, p);
+        }
+
+        int count = Math.min(Math.min(profile.getSize() - pool.size(), props.getMaxLaunchPerRound()), budget);
+        if (count <= 0) {
+            return 0;
+        }
+        RunInstancesRequest.Builder req = Ec2Requests.runInstances(imageId,
+                Optional.of("warm-pool-" + profile.getName()),
+                Optional.ofNullable(profile.getKeyName()),
+                Optional.of(profile.getInstanceType()),
+                Optional.ofNullable(profile.getUserData()),
+                Optional.of(profile.getSecurityGroupIds()),
+                Map.of(POOL_TAG, profile.getName()),
+                1, count);
+        if (StringUtils.hasText(profile.getIamInstanceProfile())) {
+            req.iamInstanceProfile(IamInstanceProfileSpecification.builder()
+                    .name(profile.getIamInstanceProfile())
+                    .build());
+        }
+        RunInstancesResponse resp = resilience.call(region, "RunInstances",
+                () -> clients.ec2(region).runInstances(req.build()));
+        log.info("Warm pool '{}': launched {} instances", profile.getName(), resp.instances().size());
+        resp.instances().forEach(i -> {
+            stateCache.put(i);
+            inventory.record(i, "warm-pool");
+            pool.pending.incrementAndGet();
+            admit(region, pool, i.instanceId(), imageId);
+        });
+        return resp.instances().size();
+    }
+
+    /**
+     * Adopt instances a previous run of the application left in the pool.
+     */
+    private void adopt(Region region) {
+        for (ProfilePool pool : pools) {
+            DescribeInstancesRequest req = DescribeInstancesRequest.builder()
+                    .filters(Ec2Requests.instanceFilters(POOLED_STATES, null,
+                            List.of(POOL_TAG + "=" + pool.profile.getName())))
+                    .build();
+            List<Instance> found = resilience.call(region, "DescribeInstances", () -> clients.ec2(region)
+                    .describeInstancesPaginator(req).reservations().stream()
+                    .flatMap(r -> r.instances().stream())
+                    .toList());
+            for (Instance i : found) {
+                Pooled pooled = new Pooled(i.instanceId(), i.imageId(), i.launchTime(), true);
+                switch (i.state().name()) {
+                    case RUNNING -> pool.running.add(pooled);
+                    case STOPPED -> pool.stopped.add(pooled.stopped());
+                    case PENDING -> {
+                        pool.pending.incrementAndGet();
+                        admit(region, pool, i.instanceId(), i.imageId());
+                    }
+                    case STOPPING -> {
+                        pool.pending.incrementAndGet();
+                        awaitStopped(region, pool, pooled);
+                    }
+                    default -> {
+                    }
+                }
+            }
+            if (!found.isEmpty()) {
+                log.info("Warm pool '{}': adopted {} instances", pool.profile.getName(), found.size());
+            }
+        }
+    }
+
+    /**
+     * Add a launched instance (counted in {@code pending}) once it is running, stopping it beyond max-running.
+     */
+    private void admit(Region region, ProfilePool pool, String instanceId, String imageId) {
+        poller.awaitRunning(region, instanceId, props.getWaitTimeout()).whenComplete((instance, failure) -> {
+            if (failure != null) {
+                pool.pending.decrementAndGet();
+                log.warn("Warm pool instance {} did not start: {}", instanceId, failure.toString());
+                terminate(region, instanceId);
+                return;
+            }
+            Pooled pooled = new Pooled(instanceId, imageId, Instant.now(), true);
+            if (pool.running.size() < pool.profile.getMaxRunning()) {
+                pool.running.add(pooled);
+                pool.pending.decrementAndGet();
+            } else {
+                park(region, pool, pooled);
+            }
+        });
+    }
+
+    /**
+     * Stop a pooled instance (counted in {@code pending}) and keep it as stopped.
+     */
+    private void park(Region region, ProfilePool pool, Pooled pooled) {
+        ec2(region, "StopInstances", ec2 -> ec2.stopInstances(b -> b.instanceIds(pooled.instanceId())))
+                .whenComplete((resp, failure) -> {
+                    if (failure != null) {
+                        pool.pending.decrementAndGet();
+                        log.warn("Stopping warm pool instance {} failed: {}", pooled.instanceId(), failure.toString());
+                        terminate(region, pooled.instanceId());
+                    } else {
+                        awaitStopped(region, pool, pooled);
+                    }
+                });
+    }
+
+    private void awaitStopped(Region region, ProfilePool pool, Pooled pooled) {
+        poller.await(region, pooled.instanceId(), EnumSet.of(InstanceStateName.STOPPED),
+                        EnumSet.of(InstanceStateName.SHUTTING_DOWN, InstanceStateName.TERMINATED), props.getWaitTimeout())
+                .whenComplete((instance, failure) -> {
+                    pool.pending.decrementAndGet();
+                    if (failure != null) {
+                        log.warn("Warm pool instance {} did not stop: {}", pooled.instanceId(), failure.toString());
+                        terminate(region, pooled.instanceId());
+                    } else {
+                        pool.stopped.add(pooled.stopped());
+                    }
+                });
+    }
+
+    private void terminate(Region region, String instanceId) {
+        stateCache.invalidate(instanceId);
+        ec2(region, "TerminateInstances", ec2 -> ec2.terminateInstances(b -> b.instanceIds(instanceId)))
+                .whenComplete((resp, failure) -> {
+                    if (failure != null) {
+                        log.warn("Terminating warm pool instance {} failed: {}", instanceId, failure.toString());
+                    } else {
+                        inventory.recordState(instanceId, "shutting-down", "warm-pool");
+                    }
+                });
+    }
+
+    private <T> CompletableFuture<T> ec2(Region region, String action, Function<Ec2AsyncClient, CompletableFuture<T>> call) {
+        return resilience.callAsync(region, action, () -> call.apply(clients.ec2Async(region)));
+    }
+
+    private record Pooled(String instanceId, String imageId, Instant since, boolean running) {
+        Pooled stopped() {
+            return new Pooled(instanceId, imageId, since, false);
+        }
+    }
+
+    private final class ProfilePool {
+        private final AwsProps.WarmPool.Profile profile;
+        private final String instanceType;
+        private final Deque<Pooled> running = new ConcurrentLinkedDeque<>();
+        private final Deque<Pooled> stopped = new ConcurrentLinkedDeque<>();
+        // launched, starting or stopping; counts towards the size but cannot be claimed yet
+        private final AtomicInteger pending = new AtomicInteger();
+
+        ProfilePool(AwsProps.WarmPool.Profile profile) {
+            if (!StringUtils.hasText(profile.getName())) {
+                throw new IllegalStateException("aws.warm-pool.profiles[].name is required");
+            }
+            this.profile = profile;
+            this.instanceType = Ec2Requests.resolveInstanceType(Optional.ofNullable(profile.getInstanceType())).toString();
+            gauge("running", running, Deque::size);
+            gauge("stopped", stopped, Deque::size);
+            gauge("pending", pending, AtomicInteger::get);
+        }
+
+        private <T> void gauge(String state, T obj, ToDoubleFunction<T> value) {
+            Gauge.builder("aws.warm-pool.instances", obj, value)
+                    .tag("profile", profile.getName())
+                    .tag("state", state)
+                    .register(meterRegistry);
+        }
+
+        Counter claims(String outcome) {
+            return Counter.builder("aws.warm-pool.claims")
+                    .tag("profile", profile.getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Whether a pooled instance is what a fresh launch with these parameters would produce. Empty values are
+         * matched strictly as well: no key pair, no security groups (the VPC default) and no userData only match a
+         * profile that sets none of its own.
+         */
+        boolean matches(String instanceType, Optional<String> keyName, Optional<List<String>> securityGroupIds,
+                        Optional<String> userData) {
+            return this.instanceType.equals(instanceType)
+                    && keyName.filter(k -> !k.isBlank())
+                            .equals(Optional.ofNullable(profile.getKeyName()).filter(k -> !k.isBlank()))
+                    && Set.copyOf(securityGroupIds.orElse(List.of()))
+                            .equals(Set.copyOf(profile.getSecurityGroupIds()))
+                    && ownUserData()
+                            // the profile's script already ran at boot: only a request for the same script matches
+                            .map(own -> userData.equals(Optional.of(own)))
+                            .orElse(userData.isEmpty() || profile.isSsmUserData());
+        }
+
+        /**
+         * The request's userData still to run through SSM on a claimed instance; empty if the profile ran it at boot.
+         */
+        Optional<String> ssmScript(Optional<String> userData) {
+            return ownUserData().isPresent() ? Optional.empty() : userData;
+        }
+
+        private Optional<String> ownUserData() {
+            return Optional.ofNullable(profile.getUserData()).filter(s -> !s.isBlank());
+        }
+
+        /**
+         * Remove and return a pooled instance built from {@code imageId}, preferring running ones.
+         * {@link Deque#remove(Object)} succeeds for exactly one caller, so concurrent claims never share an instance.
+         */
+        Pooled take(String imageId, boolean runningOnly) {
+            Pooled pooled = take(running, imageId);
+            return pooled != null || runningOnly ? pooled : take(stopped, imageId);
+        }
+
+        private Pooled take(Deque<Pooled> deque, String imageId) {
+            for (Pooled p : deque) {
+                if (p.imageId().equals(imageId) && deque.remove(p)) {
+                    return p;
+                }
+            }
+            return null;
+        }
+
+        int size() {
+            return running.size() + stopped.size() + pending.get();
+        }
+    }
+}
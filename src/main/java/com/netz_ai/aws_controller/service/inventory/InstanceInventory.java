@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.inventory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netz_ai.aws_controller.dto.aws.InstanceStateResponse;
+import com.netz_ai.aws_controller.service.aws.Ec2Requests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.InstanceStateName;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Instance inventory in the datasource (tables {@code instance_inventory} and {@code instance_state_transition}).
+ * <ul>
+ *     <li>Every instance the controller launches, describes, waits on or terminates is recorded with its latest
+ *     observed state; a transition row is added whenever the state differs from the last one recorded.</li>
+ *     <li>Writes are write-behind: {@link #record} only enqueues (dropping, with a counter, when the queue is full)
+ *     and a scheduled flush writes JDBC batches, so the request path never waits on the database.</li>
+ *     <li>{@link #lookup} serves state reads when the row was observed within {@code aws.inventory.max-age}
+ *     (terminated instances are always fresh).</li>
+ * </ul>
+ * Without a datasource, or with {@code aws.inventory.enabled=false}, every method is a no-op.
+ */
+@Slf4j
+@Component
+public class InstanceInventory {
+    private static final String UPSERT_INSTANCE = """
+            INSERT INTO instance_inventory
+                (instance_id, name, instance_type, image_id, state, public_dns_name, public_ip,
+                 launched_at, terminated_at, observed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                name = COALESCE(VALUES(name), name),
+                instance_type = COALESCE(VALUES(instance_type), instance_type),
+                image_id = COALESCE(VALUES(image_id), image_id),
+                state = IF(VALUES(observed_at) >= observed_at, VALUES(state), state),
+                public_dns_name = COALESCE(VALUES(public_dns_name), public_dns_name),
+                public_ip = COALESCE(VALUES(public_ip), public_ip),
+                launched_at = COALESCE(launched_at, VALUES(launched_at)),
+                terminated_at = COALESCE(terminated_at, VALUES(terminated_at)),
+                observed_at = GREATEST(observed_at, VALUES(observed_at))
+            """;
+    private static final String INSERT_TRANSITION = """
+            INSERT INTO instance_state_transition (instance_id, state, source, observed_at) VALUES (?, ?, ?, ?)
+            """;
+    private static final String SELECT_INSTANCE = """
+            SELECT instance_id, state, instance_type, image_id, public_dns_name, public_ip, observed_at
+            FROM instance_inventory WHERE instance_id = ?
+            """;
+
+    private final ObjectProvider<JdbcTemplate> jdbc;
+    private final BlockingQueue<Observation> queue;
+    // last state successfully written per instance, to add transition rows only on change
+    private final Cache<String, String> lastState = Caffeine.newBuilder().maximumSize(100_000).build();
+    private final Counter dropped;
+    private final Counter failed;
+
+    @Value("${aws.inventory.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aws.inventory.batch-size:500}")
+    private int batchSize;
+
+    @Value("${aws.inventory.max-age:PT5S}")
+    private Duration maxAge;
+
+    public InstanceInventory(ObjectProvider<JdbcTemplate> jdbc,
+                             MeterRegistry meterRegistry,
+                             @Value("${aws.inventory.queue-capacity:10000}") int queueCapacity) {
+        this.jdbc = jdbc;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = Counter.builder("aws.inventory.writes").tag("result", "dropped").register(meterRegistry);
+        this.failed = Counter.builder("aws.inventory.writes").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("aws.inventory.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Record the observed description of an instance.
+     * @param source what observed it, e.g. {@code launch}, {@code describe}, {@code poller}
+     */
+    public void record(Instance instance, String source) {
+        if (active()) {
+            enqueue(new Observation(instance.instanceId(), instance.state().nameAsString(), source, Instant.now(),
+                    Ec2Requests.nameTag(instance), instance.instanceTypeAsString(), instance.imageId(),
+                    instance.publicDnsName(), instance.publicIpAddress(), instance.launchTime()));
+        }
+    }
+
+    /**
+     * Record a bare state change (e.g. from TerminateInstances) for an instance.
+     */
+    public void recordState(String instanceId, String state, String source) {
+        if (active() && state != null) {
+            enqueue(new Observation(instanceId, state, source, Instant.now(),
+                    null, null, null, null, null, null));
+        }
+    }
+
+    /**
+     * The inventory's view of the instance if it is fresh enough to answer a state read.
+     */
+    public Optional<InstanceStateResponse> lookup(String instanceId) {
+        if (!active()) {
+            return Optional.empty();
+        }
+        try {
+            Instant freshAfter = Instant.now().minus(maxAge);
+            return jdbc.getObject().query(SELECT_INSTANCE, (rs, n) -> {
+                        String state = rs.getString("state");
+                        Instant observedAt = rs.getTimestamp("observed_at").toInstant();
+                        if (!InstanceStateName.TERMINATED.toString().equals(state) && observedAt.isBefore(freshAfter)) {
+                            return null;
+                        }
+                        return InstanceStateResponse.builder()
+                                .instanceId(rs.getString("instance_id"))
+                                .state(state)
+                                .instanceType(rs.getString("instance_type"))
+                                .imageId(rs.getString("image_id"))
+                                .publicDnsName(rs.getString("public_dns_name"))
+                                .publicIp(rs.getString("public_ip"))
+                                .build();
+                    }, instanceId).stream()
+                    .filter(Objects::nonNull)
+                    .findFirst();
+        } catch (RuntimeException e) {
+            log.debug("Inventory lookup of {} failed: {}", instanceId, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${aws.inventory.flush-interval:PT1S}")
+    void flush() {
+        if (!active()) {
+            return;
+        }
+        List<Observation> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private boolean active() {
+        return enabled && jdbc.getIfAvailable() != null;
+    }
+
+    private void enqueue(Observation o) {
+        if (!queue.offer(o)) {
+            dropped.increment();
+            log.debug("Inventory queue full; dropped observation of {}", o.instanceId());
+        }
+    }
+
+    private void write(List<Observation> batch) {
+        List<Object[]> instances = new ArrayList<>(batch.size());
+        List<Object[]> transitions = new ArrayList<>();
+        // states this batch writes; they become lastState only once the batch is stored, so a failed write
+        // is retried as a transition by the next observation
+        Map<String, String> written = new HashMap<>();
+        for (Observation o : batch) {
+            Timestamp observedAt = Timestamp.from(o.observedAt());
+            boolean terminated = InstanceStateName.TERMINATED.toString().equals(o.state());
+            instances.add(new Object[]{o.instanceId(), o.name(), o.instanceType(), o.imageId(), o.state(),
+                    o.publicDnsName(), o.publicIp(),
+                    o.launchTime() == null ? null : Timestamp.from(o.launchTime()),
+                    terminated ? observedAt : null, observedAt});
+            String previous = written.containsKey(o.instanceId())
+                    ? written.get(o.instanceId())
+                    : lastState.getIfPresent(o.instanceId());
+            written.put(o.instanceId(), o.state());
+            if (!o.state().equals(previous)) {
+                transitions.add(new Object[]{o.instanceId(), o.state(), o.source(), observedAt});
+            }
+        }
+        try {
+            JdbcTemplate template = jdbc.getObject();
+            template.batchUpdate(UPSERT_INSTANCE, instances);
+            if (!transitions.isEmpty()) {
+                template.batchUpdate(INSERT_TRANSITION, transitions);
+            }
+            lastState.putAll(written);
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.warn("Inventory write of {} observations failed: {}", batch.size(), e.toString());
+        }
+    }
+
+    private record Observation(String instanceId, String state, String source, Instant observedAt,
+                               String name, String instanceType, String imageId,
+                               String publicDnsName, String publicIp, Instant launchTime) {
+    }
+}
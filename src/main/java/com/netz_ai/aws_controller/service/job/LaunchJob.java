@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.job;
+
+import com.netz_ai.aws_controller.dto.aws.CreateAndWaitResponse;
+import com.netz_ai.aws_controller.dto.job.LaunchJobStatus;
+import com.netz_ai.aws_controller.dto.job.LaunchPhase;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Mutable state of a single launch job. Transitions are serialized on the job itself;
+ * {@link LaunchJobService} also holds that lock while notifying and registering subscribers.
+ */
+class LaunchJob {
+    @Getter
+    private final String id;
+    private final Instant createdAt = Instant.now();
+    private final List<LaunchJobStatus.Transition> transitions = new ArrayList<>();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private LaunchPhase phase;
+    private Instant updatedAt;
+    private String instanceId;
+    private String error;
+    private CreateAndWaitResponse result;
+
+    LaunchJob(String id) {
+        this.id = id;
+        transition(LaunchPhase.QUEUED);
+    }
+
+    synchronized LaunchJobStatus transition(LaunchPhase next) {
+        if (phase != null && phase.isTerminal()) {
+            return snapshot();
+        }
+        phase = next;
+        updatedAt = Instant.now();
+        transitions.add(new LaunchJobStatus.Transition(next, updatedAt));
+        return snapshot();
+    }
+
+    synchronized void instanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    synchronized LaunchJobStatus succeed(CreateAndWaitResponse result) {
+        this.result = result;
+        this.instanceId = result.getInstanceId();
+        return transition(LaunchPhase.RUNNING);
+    }
+
+    synchronized LaunchJobStatus fail(String error) {
+        this.error = error;
+        return transition(LaunchPhase.FAILED);
+    }
+
+    synchronized boolean isFinishedBefore(Instant cutoff) {
+        return phase.isTerminal() && updatedAt.isBefore(cutoff);
+    }
+
+    synchronized LaunchJobStatus snapshot() {
+        return LaunchJobStatus.builder()
+                .jobId(id)
+                .phase(phase)
+                .instanceId(instanceId)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .error(error)
+                .result(result)
+                .transitions(List.copyOf(transitions))
+                .build();
+    }
+
+    List<SseEmitter> emitters() {
+        return emitters;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.job;
+
+import com.netz_ai.aws_controller.dto.aws.CreateAndWaitResponse;
+import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import com.netz_ai.aws_controller.dto.job.LaunchJobStatus;
+import com.netz_ai.aws_controller.dto.job.LaunchPhase;
+import com.netz_ai.aws_controller.service.aws.Ec2AsyncService;
+import com.netz_ai.aws_controller.service.aws.IdempotentLaunches;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs instance launches in the background. Callers get a job ID immediately and follow progress
+ * either by polling {@link #status(String)} or by subscribing to server-sent events. Events are sent
+ * from the job executor, never from SDK I/O or poller threads.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LaunchJobService {
+    public static final String PHASE_EVENT = "phase";
+
+    private final Ec2AsyncService ec2AsyncService;
+    private final IdempotentLaunches idempotentLaunches;
+    @Qualifier("jobExecutor")
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final Map<String, LaunchJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${aws.jobs.retention:PT1H}")
+    private Duration retention;
+
+    @Value("${aws.jobs.sse-timeout:PT10M}")
+    private Duration sseTimeout;
+
+    /**
+     * Accept a launch whose request is already known. A repeated {@code idempotencyKey} returns the job started
+     * by the first request, and the key is sent as the RunInstances client token.
+     * @throws ResponseStatusException 503 if the job executor is saturated, 422 if the key was used with a
+     * different request
+     */
+    public LaunchJobStatus submit(CreateEc2Request req, Duration timeout, Duration pollInterval) {
+        ec2AsyncService.resolveRegion(Optional.ofNullable(req.getRegion())); // reject unknown regions with 400 up front
+        String jobId = idempotentLaunches.call("ec2.jobs", req.getIdempotencyKey(), req, () -> {
+            LaunchJob job = register();
+            launch(job, start(job, () -> req), Optional.ofNullable(req.getIdempotencyKey()), timeout, pollInterval);
+            return job.getId();
+        });
+        return find(jobId).snapshot();
+    }
+
+    /**
+     * Accept a launch whose request still has to be produced by a (blocking) planner, e.g. the LLM.
+     * The planner runs on the job executor, so the calling thread returns immediately. Idempotency works as in
+     * {@link #submit}, keyed on {@code idempotencyKey} and the caller's {@code request}.
+     * @throws ResponseStatusException 503 if the job executor is saturated, 422 if the key was used with a
+     * different request
+     */
+    public LaunchJobStatus submitPlanned(String idempotencyKey, Object request, Supplier<CreateEc2Request> planner,
+                                         Duration timeout, Duration pollInterval) {
+        String jobId = idempotentLaunches.call("openai.aws-controller.jobs", idempotencyKey, request, () -> {
+            LaunchJob job = register();
+            CompletableFuture<CreateEc2Request> planned = start(job, () -> {
+                publish(job, () -> job.transition(LaunchPhase.PLANNING));
+                return planner.get();
+            });
+            launch(job, planned, Optional.ofNullable(idempotencyKey), timeout, pollInterval);
+            return job.getId();
+        });
+        return find(jobId).snapshot();
+    }
+
+    public LaunchJobStatus status(String jobId) {
+        return find(jobId).snapshot();
+    }
+
+    /**
+     * Subscribe to phase transitions. The current state is sent first; the stream completes once
+     * the job reaches a terminal phase. Snapshot and registration happen under the job's lock, so no
+     * transition is missed or delivered ahead of the snapshot.
+     */
+    public SseEmitter subscribe(String jobId) {
+        LaunchJob job = find(jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        emitter.onCompletion(() -> job.emitters().remove(emitter));
+        emitter.onTimeout(() -> job.emitters().remove(emitter));
+        emitter.onError(ex -> job.emitters().remove(emitter));
+
+        synchronized (job) {
+            LaunchJobStatus current = job.snapshot();
+            if (!send(job, emitter, current)) {
+                return emitter;
+            }
+            if (current.getPhase().isTerminal()) {
+                emitter.complete();
+            } else {
+                job.emitters().add(emitter);
+            }
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${aws.jobs.cleanup-interval:PT1M}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinishedBefore(cutoff));
+    }
+
+    private LaunchJob register() {
+        LaunchJob job = new LaunchJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private LaunchJob find(String jobId) {
+        LaunchJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found");
+        }
+        return job;
+    }
+
+    /**
+     * Run the first step of a job on the job executor, rejecting the job up front when the executor is saturated.
+     */
+    private CompletableFuture<CreateEc2Request> start(LaunchJob job, Supplier<CreateEc2Request> first) {
+        try {
+            return CompletableFuture.supplyAsync(first, jobExecutor);
+        } catch (TaskRejectedException ex) {
+            jobs.remove(job.getId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many launch jobs in progress");
+        }
+    }
+
+    private void launch(LaunchJob job, CompletableFuture<CreateEc2Request> planned, Optional<String> clientToken,
+                        Duration timeout, Duration pollInterval) {
+        planned
+                .thenComposeAsync(req -> {
+                    publish(job, () -> job.transition(LaunchPhase.RESOLVING_AMI));
+                    Optional<String> regionOpt = Optional.ofNullable(req.getRegion());
+                    Region region = ec2AsyncService.resolveRegion(regionOpt);
+                    return ec2AsyncService.resolveImageId(
+                                    region,
+                                    req.getUseAl2023() == null || req.getUseAl2023(),
+                                    Optional.ofNullable(req.getAmiId()))
+                            .thenComposeAsync(imageId -> {
+                                publish(job, () -> job.transition(LaunchPhase.RUN_INSTANCES));
+                                return ec2AsyncService.runInstancesRequest(
+                                        region,
+                                        imageId,
+                                        Optional.ofNullable(req.getName()),
+                                        Optional.ofNullable(req.getKeyName()),
+                                        Optional.ofNullable(req.getInstanceType()),
+                                        Optional.ofNullable(req.getUserData()),
+                                        Optional.ofNullable(req.getSecurityGroups()));
+                            }, jobExecutor)
+                            .thenCompose(request -> {
+                                clientToken.filter(t -> !t.isBlank()).ifPresent(request::clientToken);
+                                return ec2AsyncService.runInstances(region, request.build());
+                            })
+                            .thenComposeAsync(run -> {
+                                String instanceId = run.instances().getFirst().instanceId();
+                                job.instanceId(instanceId);
+                                publish(job, () -> job.transition(LaunchPhase.PENDING));
+                                return ec2AsyncService.waitUntilRunning(regionOpt, instanceId, timeout, pollInterval);
+                            }, jobExecutor);
+                }, jobExecutor)
+                .whenCompleteAsync((instance, ex) -> {
+                    if (ex != null) {
+                        log.warn("Launch job {} failed", job.getId(), ex);
+                        publish(job, () -> job.fail(describe(ex)));
+                    } else {
+                        publish(job, () -> job.succeed(CreateAndWaitResponse.from(instance)));
+                    }
+                }, this::executeOrRunInline);
+    }
+
+    /**
+     * Applies a change to the job and sends the resulting status to its subscribers, both under the
+     * job's lock so that {@link #subscribe(String)} sees either the state before or after the change.
+     */
+    private void publish(LaunchJob job, Supplier<LaunchJobStatus> change) {
+        synchronized (job) {
+            LaunchJobStatus status = change.get();
+            for (SseEmitter emitter : job.emitters()) {
+                if (send(job, emitter, status) && status.getPhase().isTerminal()) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+
+    /**
+     * The terminal event must go out even when the job executor is saturated.
+     */
+    private void executeOrRunInline(Runnable task) {
+        try {
+            jobExecutor.execute(task);
+        } catch (TaskRejectedException ex) {
+            task.run();
+        }
+    }
+
+    private boolean send(LaunchJob job, SseEmitter emitter, LaunchJobStatus status) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(PHASE_EVENT)
+                    .id(status.getJobId() + ":" + status.getTransitions().size())
+                    .data(status));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // client went away; the emitter callbacks may not have fired yet
+            job.emitters().remove(emitter);
+            return false;
+        }
+    }
+
+    private static String describe(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof ResponseStatusException rse) {
+            return rse.getStatusCode().value() + ": " + rse.getReason();
+        }
+        return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+}
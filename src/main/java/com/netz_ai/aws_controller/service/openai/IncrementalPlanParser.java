@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.openai;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for the planner JSON as it streams from the model.
+ * Fires callbacks for top-level {@code useAl2023} and {@code instanceType} as soon as their values are complete,
+ * while buffering the full text for the final {@link ObjectMapper#readValue} once the stream ends.
+ * Anything the model emits before the first '{' (e.g. a markdown fence) is ignored, and a syntax error
+ * just stops the early callbacks; the final parse reports it.
+ */
+@Slf4j
+final class IncrementalPlanParser {
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Consumer<Boolean> onUseAl2023;
+    private final Consumer<String> onInstanceType;
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean started;
+    private boolean failed;
+    private int depth;
+    private String field;
+
+    IncrementalPlanParser(ObjectMapper objectMapper, Consumer<Boolean> onUseAl2023, Consumer<String> onInstanceType) {
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.onUseAl2023 = onUseAl2023;
+        this.onInstanceType = onInstanceType;
+    }
+
+    void feed(String delta) {
+        if (!started) {
+            int start = delta.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            started = true;
+            delta = delta.substring(start);
+        }
+        text.append(delta);
+        if (failed || depth < 0) {
+            return;
+        }
+        try {
+            byte[] bytes = delta.getBytes(StandardCharsets.UTF_8);
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                onToken(token);
+            }
+        } catch (IOException e) {
+            log.debug("Incremental plan parsing stopped: {}", e.getOriginalMessage());
+            failed = true;
+        }
+    }
+
+    /**
+     * Everything received from the first '{' on.
+     */
+    String text() {
+        return text.toString();
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT, START_ARRAY -> depth++;
+            case END_OBJECT, END_ARRAY -> {
+                if (--depth == 0) {
+                    depth = -1; // top-level object complete; ignore trailing text
+                }
+            }
+            case FIELD_NAME -> field = depth == 1 ? parser.currentName() : null;
+            case VALUE_TRUE, VALUE_FALSE -> {
+                if (depth == 1 && "useAl2023".equals(field)) {
+                    onUseAl2023.accept(token == JsonToken.VALUE_TRUE);
+                }
+            }
+            case VALUE_STRING -> {
+                if (depth == 1 && "instanceType".equals(field) && !parser.getText().isBlank()) {
+                    onInstanceType.accept(parser.getText());
+                }
+            }
+            default -> { }
+        }
+    }
+}
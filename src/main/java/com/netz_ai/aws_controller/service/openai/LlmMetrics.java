@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.openai;
+
+import com.openai.models.completions.CompletionUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for LLM calls, tagged by requested {@code model} and calling {@code endpoint}. The model comes
+ * from the caller, so only {@code openai.model} and the models listed in {@code openai.metrics.models} are tagged
+ * as such; anything else is tagged {@code other}.
+ * <ul>
+ *     <li>{@code llm.tokens{type=prompt|completion|cached|reasoning}}: counters from the reported usage;</li>
+ *     <li>{@code llm.latency{outcome=success|error}}: time until the completion finished;</li>
+ *     <li>{@code llm.ttft}: time to the first content token (streaming calls only);</li>
+ *     <li>{@code llm.parse.failures}: model output that could not be parsed into the expected shape.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class LlmMetrics {
+    public static final String ENDPOINT_PROMPT = "prompt";
+    public static final String ENDPOINT_PROMPT_STREAM = "prompt-stream";
+    public static final String ENDPOINT_PLANNER = "planner";
+    public static final String ENDPOINT_FLEET_PLANNER = "fleet-planner";
+    public static final String OTHER_MODEL = "other";
+
+    private final MeterRegistry registry;
+
+    @Value("${openai.model:gpt-5}")
+    private String defaultModel;
+
+    @Value("${openai.metrics.models:}")
+    private Set<String> models;
+
+    /**
+     * Start timing one call; finish it with {@link Call#success()} or {@link Call#failure()}.
+     */
+    public Call start(String model, String endpoint) {
+        return new Call(modelTag(model), endpoint, System.nanoTime());
+    }
+
+    public void parseFailure(String model, String endpoint) {
+        Counter.builder("llm.parse.failures")
+                .description("LLM outputs that failed to parse")
+                .tags("model", modelTag(model), "endpoint", endpoint)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Bounds the {@code model} tag: an unlisted model name becomes {@link #OTHER_MODEL}.
+     */
+    String modelTag(String model) {
+        return model.equals(defaultModel) || models.contains(model) ? model : OTHER_MODEL;
+    }
+
+    private void tokens(String model, String endpoint, String type, long amount) {
+        if (amount > 0) {
+            Counter.builder("llm.tokens")
+                    .description("Tokens reported by the LLM usage block")
+                    .baseUnit("tokens")
+                    .tags("model", model, "endpoint", endpoint, "type", type)
+                    .register(registry)
+                    .increment(amount);
+        }
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @RequiredArgsConstructor
+    public final class Call {
+        private final String model;
+        private final String endpoint;
+        private final long startNanos;
+        private boolean firstToken;
+
+        /**
+         * Mark the arrival of a content chunk; only the first one is recorded as time to first token.
+         */
+        public void token() {
+            if (!firstToken) {
+                firstToken = true;
+                timer("llm.ttft", "Time to first streamed token", "model", model, "endpoint", endpoint)
+                        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        public void usage(CompletionUsage usage) {
+            tokens(model, endpoint, "prompt", usage.promptTokens());
+            tokens(model, endpoint, "completion", usage.completionTokens());
+            usage.promptTokensDetails()
+                    .flatMap(CompletionUsage.PromptTokensDetails::cachedTokens)
+                    .ifPresent(cached -> tokens(model, endpoint, "cached", cached));
+            usage.completionTokensDetails()
+                    .flatMap(CompletionUsage.CompletionTokensDetails::reasoningTokens)
+                    .ifPresent(reasoning -> tokens(model, endpoint, "reasoning", reasoning));
+        }
+
+        public void success() {
+            finish("success");
+        }
+
+        public void failure() {
+            finish("error");
+        }
+
+        private void finish(String outcome) {
+            timer("llm.latency", "End-to-end LLM call latency",
+                    "model", model, "endpoint", endpoint, "outcome", outcome)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
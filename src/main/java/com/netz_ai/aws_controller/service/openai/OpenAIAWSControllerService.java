@@ -17,35 +17,111 @@ package com.netz_ai.aws_controller.service.openai;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
 import com.netz_ai.aws_controller.dto.aws.CreateAndWaitResponse;
 import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import com.netz_ai.aws_controller.dto.aws.MultiInstanceLaunchResponse;
+import com.netz_ai.aws_controller.dto.openai.Ec2FleetPlan;
+import com.netz_ai.aws_controller.dto.openai.Ec2Plan;
 import com.netz_ai.aws_controller.dto.openai.PromptRequest;
+import com.netz_ai.aws_controller.service.aws.AmiCache;
+import com.netz_ai.aws_controller.service.aws.Ec2Requests;
 import com.netz_ai.aws_controller.service.aws.Ec2Service;
+import com.netz_ai.aws_controller.service.aws.IdempotentLaunches;
+import com.netz_ai.aws_controller.service.aws.InstanceGroupLauncher;
 import com.openai.client.OpenAIClient;
+import com.openai.core.http.StreamResponse;
 import com.openai.models.chat.completions.ChatCompletion;
+import com.openai.models.chat.completions.ChatCompletionChunk;
 import com.openai.models.chat.completions.ChatCompletionCreateParams;
+import com.openai.models.chat.completions.ChatCompletionStreamOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.ec2.model.Ec2Exception;
 import software.amazon.awssdk.services.ec2.model.Instance;
-import software.amazon.awssdk.services.ec2.model.Tag;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OpenAIAWSControllerService {
+    /**
+     * Value rules shared by the single- and multi-instance planner prompts.
+     */
+    static final String PLAN_VALUE_RULES = """
+            - useAl2023: true unless Amazon Linux 2 is explicitly requested.
+            - instanceType: as requested, otherwise t2.micro.
+            - keyName: the given key pair name, otherwise "".
+            - securityGroups: only IDs given by the user (sg-...), in order; never invent; otherwise [].
+            - userData: bash for Amazon Linux. Start with #!/bin/bash and set -euo pipefail, run yum update -y,
+              use yum (never dnf) for packages and systemctl enable --now for services.
+              Web/http/apache: install httpd and write a basic index.html.
+              MySQL: install MySQL Community Server via its yum repo, start mysqld. MariaDB: yum install -y
+              mariadb-server, start mariadb. If both are named, use the last. Secure the root account, drop test
+              databases, and create the requested database/user; use placeholders (StrongP@ssw0rd!, app_db,
+              app_user) for values not given. Otherwise only update packages and write a health marker file.
+              Keep it idempotent where reasonable.
+            """;
+
+    /**
+     * Static system message for structured-output mode. The output shape is enforced by the JSON schema
+     * derived from {@link Ec2Plan}, so only the value rules remain; keeping it constant lets the API cache the prefix.
+     */
+    static final String PLANNER_SYSTEM_PROMPT = """
+            You plan exactly one AWS EC2 instance on Amazon Linux from the user's request.
+            - name: short kebab-case derived from the request (e.g. web-1, mysql-db-1).
+            """ + PLAN_VALUE_RULES;
+
+    /**
+     * Static system message of the multi-instance planner ({@link Ec2FleetPlan}); same value rules per group.
+     */
+    static final String FLEET_PLANNER_SYSTEM_PROMPT = """
+            You plan the AWS EC2 instances on Amazon Linux that the user's request needs.
+            - One group per distinct configuration; identical instances share a group with count
+              (e.g. "3 web servers and a MariaDB" is a web group with count 3 and a database group with count 1).
+            - name: short, unique kebab-case group name (e.g. web, mariadb-db).
+            - dependsOn: names of groups that must be running first (e.g. web servers using a database depend on
+              it), otherwise []. Never create cycles.
+            """ + PLAN_VALUE_RULES;
+
+    /**
+     * Response format carrying the JSON schema derived from {@link Ec2Plan} (strict mode); built once.
+     */
+    private static final ChatCompletionCreateParams.ResponseFormat PLAN_RESPONSE_FORMAT = responseFormat(Ec2Plan.class);
+
+    private static final ChatCompletionCreateParams.ResponseFormat FLEET_RESPONSE_FORMAT =
+            responseFormat(Ec2FleetPlan.class);
+
+    private static final Planner SINGLE = new Planner(
+            LlmMetrics.ENDPOINT_PLANNER, PLANNER_SYSTEM_PROMPT, PLAN_RESPONSE_FORMAT, "", true);
+
+    // always structured: the prose template only describes a single object
+    private static final Planner FLEET = new Planner(
+            LlmMetrics.ENDPOINT_FLEET_PLANNER, FLEET_PLANNER_SYSTEM_PROMPT, FLEET_RESPONSE_FORMAT, "fleet: ", false);
+
     private final OpenAIClient client;
     private final OpenAIResponsesService openAIResponsesService; // your existing OpenAI service that hits Responses API
     private final Ec2Service ec2Service;                         // your existing EC2 service
     private final ObjectMapper objectMapper;                     // Spring Boot auto-configured
+    private final PromptCache promptCache;
+    private final AmiCache amiCache;
+    private final OpenAiLimiter limiter;
+    private final LlmMetrics metrics;
+    private final IdempotentLaunches idempotentLaunches;
+    private final AwsClientRegistry awsClients;
+    private final InstanceGroupLauncher groupLauncher;
 
     @Value("${openai.model:gpt-5}")
     private String defaultModel;
@@ -53,42 +129,132 @@ public class OpenAIAWSControllerService {
     @Value("${openai.temperature:1}")
     private Double defaultTemperature;
 
+    @Value("${openai.streaming:true}")
+    private boolean streaming;
+
+    @Value("${openai.structured-output:true}")
+    private boolean structuredOutput;
+
+    @Value("${openai.fleet.max-instances:20}")
+    private int fleetMaxInstances;
+
+    /**
+     * Plan an instance from the prompt, launch it and wait until it is running.
+     * With an idempotency key the whole plan-and-launch runs once per key ({@link IdempotentLaunches}):
+     * concurrent duplicates share it, retries get the cached result, and the key is the RunInstances client token.
+     */
     public CreateAndWaitResponse respond(PromptRequest req) {
+        return idempotentLaunches.call("openai.aws-controller", req.getIdempotencyKey(), req, () -> {
+            CreateEc2Request ec2Req = plan(req);
+            try {
+                Instance instance = ec2Service.createAndWaitRunning(
+                        Optional.ofNullable(ec2Req.getRegion()),
+                        Optional.ofNullable(ec2Req.getName()),
+                        Optional.ofNullable(ec2Req.getKeyName()),
+                        ec2Req.getUseAl2023() == null || ec2Req.getUseAl2023(),
+                        Optional.ofNullable(ec2Req.getAmiId()),
+                        Optional.ofNullable(ec2Req.getInstanceType()),
+                        Optional.ofNullable(ec2Req.getUserData()),
+                        Optional.of(ec2Req.getSecurityGroups()),
+                        Optional.ofNullable(req.getIdempotencyKey()),
+                        Duration.ofSeconds(300),
+                        Duration.ofSeconds(5));
+                return CreateAndWaitResponse.from(instance);
+            } catch (Ec2Exception e) {
+                if (IdempotentLaunches.isParameterMismatch(e)) {
+                    throw e; // a different plan under a key EC2 still remembers
+                }
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "OpenAI could not create instance");
+            }
+        });
+    }
 
-        String model = (req.getModel() == null || req.getModel().isBlank()) ? defaultModel : req.getModel();
-        Double temperature = (req.getTemperature() == null) ? defaultTemperature : req.getTemperature();
+    /**
+     * Ask the model for a {@link CreateEc2Request} and apply defaults, without launching anything.
+     * Results are cached by model and normalized prompt ({@link PromptCache}); a hit skips the model call.
+     * @throws ResponseStatusException 502 on empty content, 422 if the content is not a valid request
+     */
+    public CreateEc2Request plan(PromptRequest req) {
+        CreateEc2Request ec2Req = completeAndParse(SINGLE, req, CreateEc2Request.class);
+        log.info("CreateEc2Request object:\n{}", ec2Req.toString());
+        applyDefaults(ec2Req, req);
+        return ec2Req;
+    }
 
-        ChatCompletionCreateParams createParams = ChatCompletionCreateParams.builder()
-                .model(model)
-                .maxCompletionTokens(25000)
-                .temperature(1)
-                .addUserMessage(getPrompt(req.getPrompt()))
-                .build();
-        log.info("The final prompt:\n{}", getPrompt(req.getPrompt()));
+    /**
+     * Plan several instances from one prompt with a single model call, launch them concurrently and wait
+     * until all are running ({@link InstanceGroupLauncher}). Identical instances are launched as one group.
+     * With an idempotency key the whole plan-and-launch runs once per key, like {@link #respond}.
+     */
+    public MultiInstanceLaunchResponse respondFleet(PromptRequest req) {
+        return idempotentLaunches.call("openai.aws-controller.fleet", req.getIdempotencyKey(), req, () ->
+                groupLauncher.launch(planFleet(req), Optional.ofNullable(req.getIdempotencyKey()),
+                        Duration.ofSeconds(300)));
+    }
 
-        ChatCompletion response = client.chat().completions().create(createParams);
+    /**
+     * Ask the model for an {@link Ec2FleetPlan} and turn it into launch groups, without launching anything.
+     * Groups with identical settings (including the name) are merged into one with the summed count.
+     * @throws ResponseStatusException 422 if the plan is empty, invalid or exceeds {@code openai.fleet.max-instances}
+     */
+    public List<InstanceGroupLauncher.Group> planFleet(PromptRequest req) {
+        Ec2FleetPlan plan = completeAndParse(FLEET, req, Ec2FleetPlan.class);
+        log.info("Ec2FleetPlan object:\n{}", plan);
+        if (plan.getInstances() == null || plan.getInstances().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "OpenAI planned no instances");
+        }
+        Map<CreateEc2Request, InstanceGroupLauncher.Group> groups = new LinkedHashMap<>();
+        for (Ec2FleetPlan.Group item : plan.getInstances()) {
+            CreateEc2Request ec2Req = objectMapper.convertValue(item, CreateEc2Request.class);
+            if (ec2Req.getName() == null || ec2Req.getName().isBlank()) {
+                ec2Req.setName("group-" + (groups.size() + 1));
+            }
+            applyDefaults(ec2Req, req);
+            int count = item.getCount() == null ? 1 : Math.max(1, item.getCount());
+            List<String> dependsOn = item.getDependsOn() == null ? List.of() : List.copyOf(item.getDependsOn());
+            groups.merge(ec2Req, new InstanceGroupLauncher.Group(ec2Req.getName(), ec2Req, count, dependsOn),
+                    (a, b) -> new InstanceGroupLauncher.Group(a.name(), a.request(), a.count() + b.count(),
+                            Stream.concat(a.dependsOn().stream(), b.dependsOn().stream()).distinct().toList()));
+        }
+        int total = groups.values().stream().mapToInt(InstanceGroupLauncher.Group::count).sum();
+        if (total > fleetMaxInstances) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Plan has " + total + " instances, more than openai.fleet.max-instances (" + fleetMaxInstances + ")");
+        }
+        return List.copyOf(groups.values());
+    }
 
-        Optional<String> content = response.choices().getFirst().message().content();
-        response.usage().ifPresent(usage -> {
-            log.info(usage.toString());
-        });
+    /**
+     * Model output for the prompt parsed as {@code type}, served from the {@link PromptCache} when present.
+     */
+    private <T> T completeAndParse(Planner planner, PromptRequest req, Class<T> type) {
+        String model = (req.getModel() == null || req.getModel().isBlank()) ? defaultModel : req.getModel();
+        Region region = awsClients.resolve(Optional.ofNullable(req.getRegion())); // 400 before any model call
+        String cacheKey = planner.cachePrefix() + req.getPrompt();
 
-        if (content.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "OpenAI returned empty content");
+        Optional<String> cached = promptCache.get(model, cacheKey);
+        if (cached.isPresent()) {
+            log.debug("Prompt cache hit for model {}", model);
         }
-        log.info("JSON result:\n{}", content.get());
+        String json = cached.orElseGet(() -> complete(planner, model, req.getPrompt(), region));
 
-        final CreateEc2Request ec2Req;
+        final T parsed;
         try {
-            ec2Req = objectMapper.readValue(content.get(), CreateEc2Request.class);
+            parsed = objectMapper.readValue(json, type);
         } catch (JsonProcessingException e) {
+            metrics.parseFailure(model, planner.endpoint());
             throw new ResponseStatusException(
                     HttpStatus.UNPROCESSABLE_ENTITY,
-                    "OpenAI content is not valid CreateEc2Request JSON: " + e.getOriginalMessage(), e
+                    "OpenAI content is not valid " + type.getSimpleName() + " JSON: " + e.getOriginalMessage(), e
             );
         }
-        log.info("CreateEc2Request object:\n{}", ec2Req.toString());
+        if (cached.isEmpty()) {
+            promptCache.put(model, cacheKey, json);
+        }
+        return parsed;
+    }
 
+    private void applyDefaults(CreateEc2Request ec2Req, PromptRequest req) {
         // Optional: light sanity checks
         if (ec2Req.getKeyName() == null || ec2Req.getKeyName().isBlank()) {
             ec2Req.setKeyName("AWS-SAA-C003-RSA"); // default
@@ -99,43 +265,149 @@ public class OpenAIAWSControllerService {
         if (ec2Req.getUseAl2023() == null) {
             ec2Req.setUseAl2023(Boolean.TRUE);
         }
+        ec2Req.setRegion(req.getRegion()); // chosen by the caller, never by the model
         if (ec2Req.getSecurityGroups() == null || ec2Req.getSecurityGroups().isEmpty()) {
             ec2Req.setSecurityGroups(new ArrayList<>());
             ec2Req.getSecurityGroups().add("sg-074b93f3fa5e149d4");
             ec2Req.getSecurityGroups().add("sg-03ab1f5cc977d5c85");
             ec2Req.getSecurityGroups().add("sg-064f4f6b368686377");
         }
-        try {
-            Instance instance = ec2Service.createAndWaitRunning(
-                    Optional.ofNullable(ec2Req.getName()),
-                    Optional.ofNullable(ec2Req.getKeyName()),
-                    ec2Req.getUseAl2023() == null || ec2Req.getUseAl2023(),
-                    Optional.ofNullable(ec2Req.getAmiId()),
-                    Optional.ofNullable(ec2Req.getInstanceType()),
-                    Optional.ofNullable(ec2Req.getUserData()),
-                    Optional.of(ec2Req.getSecurityGroups()),
-                    Duration.ofSeconds(300),
-                    Duration.ofSeconds(5));
-            String nameTag = instance.tags() == null ? null :
-                    instance.tags().stream().filter(t -> "Name".equals(t.key()))
-                            .findFirst().map(Tag::value).orElse(null);
-
-            return CreateAndWaitResponse.builder()
-                    .instanceId(instance.instanceId())
-                    .state(instance.state().nameAsString())
-                    .instanceType(instance.instanceTypeAsString())
-                    .imageId(instance.imageId())
-                    .publicDnsName(instance.publicDnsName())
-                    .publicIp(instance.publicIpAddress())
-                    .nameTag(nameTag)
-                    .launchTime(instance.launchTime())
-                    .build();
-        } catch (Ec2Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "OpenAI could not create instance");
+    }
+
+    private String complete(Planner planner, String model, String prompt, Region region) {
+        if (streaming) {
+            return completeStreaming(planner, model, prompt, region);
+        }
+        ChatCompletionCreateParams createParams = completionParams(planner, model, prompt).build();
+        log.info("The final prompt:\n{}", structured(planner) ? prompt : getPrompt(prompt));
+
+        ChatCompletion response;
+        try (OpenAiLimiter.Permit permit = limiter.acquire(promptChars(planner, prompt))) {
+            LlmMetrics.Call call = metrics.start(model, planner.endpoint());
+            try {
+                response = client.chat().completions().create(createParams);
+            } catch (RuntimeException e) {
+                call.failure();
+                throw e;
+            }
+            call.success();
+            response.usage().ifPresent(usage -> {
+                call.usage(usage);
+                permit.recordUsage(usage.totalTokens());
+            });
+        }
+
+        Optional<String> content = response.choices().getFirst().message().content();
+        response.usage().ifPresent(usage -> {
+            log.info(usage.toString());
+        });
+
+        if (content.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "OpenAI returned empty content");
+        }
+        log.info("JSON result:\n{}", content.get());
+        return content.get();
+    }
+
+    /**
+     * Stream the completion and act on fields as soon as they are decoded: {@code useAl2023} warms the
+     * {@link AmiCache} of the target region while {@code userData} is still being generated, and an unknown {@code instanceType}
+     * aborts the stream with 400 instead of waiting for the remaining tokens. The early callbacks only apply to
+     * top-level fields, i.e. to single-instance plans.
+     */
+    private String completeStreaming(Planner planner, String model, String prompt, Region region) {
+        ChatCompletionCreateParams createParams = completionParams(planner, model, prompt)
+                .streamOptions(ChatCompletionStreamOptions.builder().includeUsage(true).build())
+                .build();
+        log.info("The final prompt:\n{}", structured(planner) ? prompt : getPrompt(prompt));
+
+        IncrementalPlanParser parser = new IncrementalPlanParser(objectMapper,
+                useAl2023 -> amiCache.latestAmazonLinux(region, useAl2023),
+                instanceType -> Ec2Requests.resolveInstanceType(Optional.of(instanceType)));
+
+        try (OpenAiLimiter.Permit permit = limiter.acquire(promptChars(planner, prompt))) {
+            LlmMetrics.Call call = metrics.start(model, planner.endpoint());
+            try (StreamResponse<ChatCompletionChunk> stream = client.chat().completions().createStreaming(createParams)) {
+                stream.stream().forEach(chunk -> {
+                    chunk.choices().forEach(choice -> choice.delta().content().ifPresent(delta -> {
+                        call.token();
+                        parser.feed(delta);
+                    }));
+                    chunk.usage().ifPresent(usage -> {
+                        log.info(usage.toString());
+                        call.usage(usage);
+                        permit.recordUsage(usage.totalTokens());
+                    });
+                });
+            } catch (RuntimeException e) {
+                call.failure();
+                throw e;
+            }
+            call.success();
+        }
+
+        String content = parser.text();
+        if (content.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "OpenAI returned empty content");
+        }
+        log.info("JSON result:\n{}", content);
+        return content;
+    }
+
+    /**
+     * Structured-output mode sends the planner's compact system message, the raw user request and its schema
+     * ({@link Ec2Plan} / {@link Ec2FleetPlan}); otherwise the full instruction template from
+     * {@link #getPrompt(String)} is sent as the user message.
+     */
+    private ChatCompletionCreateParams.Builder completionParams(Planner planner, String model, String prompt) {
+        ChatCompletionCreateParams.Builder builder = ChatCompletionCreateParams.builder()
+                .model(model)
+                .maxCompletionTokens(25000)
+                .temperature(1);
+        if (structured(planner)) {
+            return builder
+                    .addSystemMessage(planner.systemPrompt())
+                    .addUserMessage(prompt)
+                    .responseFormat(planner.responseFormat());
         }
+        return builder.addUserMessage(getPrompt(prompt));
+    }
+
+    private boolean structured(Planner planner) {
+        return structuredOutput || !planner.templateFallback();
+    }
+
+    private int promptChars(Planner planner, String prompt) {
+        return structured(planner) ? planner.systemPrompt().length() + prompt.length() : getPrompt(prompt).length();
+    }
+
+    /**
+     * Response format carrying the JSON schema derived from {@code type} (strict mode).
+     */
+    private static ChatCompletionCreateParams.ResponseFormat responseFormat(Class<?> type) {
+        return ChatCompletionCreateParams.builder()
+                .model("gpt-5") // placeholder, only the derived response format is kept
+                .addUserMessage("")
+                .responseFormat(type)
+                .build()
+                .rawParams()
+                .responseFormat()
+                .orElseThrow();
+    }
+
+    /**
+     * What differs between the single- and multi-instance planner.
+     * @param cachePrefix keeps their {@link PromptCache} entries apart
+     * @param templateFallback whether the prose template replaces structured output when it is disabled
+     */
+    private record Planner(String endpoint,
+                           String systemPrompt,
+                           ChatCompletionCreateParams.ResponseFormat responseFormat,
+                           String cachePrefix,
+                           boolean templateFallback) {
     }
 
-    private String getPrompt(String query) {
+    static String getPrompt(String query) {
         return String.format("Here’s a ready-to-use prompt template you can feed to your model. It wraps a user query (`{query}`) and forces a **single JSON** output matching your EC2 create API shape. It also instructs how to generate robust `userData` for Amazon Linux with **yum**, including special handling for **MySQL** or **MariaDB** requests.\n" +
                 "\n" +
                 "````text\n" +
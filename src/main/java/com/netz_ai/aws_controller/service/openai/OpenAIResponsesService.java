@@ -18,20 +18,36 @@ package com.netz_ai.aws_controller.service.openai;
 import com.netz_ai.aws_controller.dto.openai.PromptRequest;
 import com.netz_ai.aws_controller.dto.openai.PromptResponse;
 import com.openai.client.OpenAIClient;
+import com.openai.core.http.StreamResponse;
 import com.openai.models.chat.completions.ChatCompletion;
+import com.openai.models.chat.completions.ChatCompletionChunk;
 import com.openai.models.chat.completions.ChatCompletionCreateParams;
+import com.openai.models.chat.completions.ChatCompletionStreamOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OpenAIResponsesService {
     private final OpenAIClient client;
+    @Qualifier("openAiStreamExecutor")
+    private final ThreadPoolTaskExecutor openAiStreamExecutor;
+    private final OpenAiLimiter limiter;
+    private final LlmMetrics metrics;
 
     @Value("${openai.model:gpt-5}")
     private String defaultModel;
@@ -39,6 +55,9 @@ public class OpenAIResponsesService {
     @Value("${openai.temperature:1}")
     private Double defaultTemperature;
 
+    @Value("${openai.stream.sse-timeout:PT5M}")
+    private Duration sseTimeout;
+
     public PromptResponse respond(PromptRequest req) {
 
         String model = (req.getModel() == null || req.getModel().isBlank()) ? defaultModel : req.getModel();
@@ -50,7 +69,21 @@ public class OpenAIResponsesService {
                 .temperature(1)
                 .addUserMessage(req.getPrompt()).build();
 
-        ChatCompletion response = client.chat().completions().create(createParams);
+        ChatCompletion response;
+        try (OpenAiLimiter.Permit permit = limiter.acquire(req.getPrompt().length())) {
+            LlmMetrics.Call call = metrics.start(model, LlmMetrics.ENDPOINT_PROMPT);
+            try {
+                response = client.chat().completions().create(createParams);
+            } catch (RuntimeException e) {
+                call.failure();
+                throw e;
+            }
+            call.success();
+            response.usage().ifPresent(usage -> {
+                call.usage(usage);
+                permit.recordUsage(usage.totalTokens());
+            });
+        }
 
         Optional<String> content = response.choices().getFirst().message().content();
         response.usage().ifPresent(usage -> {
@@ -61,4 +94,84 @@ public class OpenAIResponsesService {
                 .content(content.get())
                 .build();
     }
+
+    /**
+     * Stream the completion to the client as Server-Sent Events:
+     * one {@code delta} event per content chunk, then a {@code done} event carrying model, finish reason and
+     * token usage (content omitted), or an {@code error} event if the call fails mid-stream.
+     * @throws ResponseStatusException 503 if all stream relays are busy
+     */
+    public SseEmitter stream(PromptRequest req) {
+        String model = (req.getModel() == null || req.getModel().isBlank()) ? defaultModel : req.getModel();
+
+        ChatCompletionCreateParams createParams = ChatCompletionCreateParams.builder()
+                .model(model)
+                .maxCompletionTokens(25000)
+                .temperature(1)
+                .streamOptions(ChatCompletionStreamOptions.builder().includeUsage(true).build())
+                .addUserMessage(req.getPrompt()).build();
+
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        try {
+            openAiStreamExecutor.execute(() -> relay(model, createParams, req.getPrompt().length(), emitter));
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent OpenAI streams", e);
+        }
+        return emitter;
+    }
+
+    private void relay(String model, ChatCompletionCreateParams createParams, int promptChars, SseEmitter emitter) {
+        PromptResponse.PromptResponseBuilder done = PromptResponse.builder();
+        AtomicReference<String> finishReason = new AtomicReference<>();
+        LlmMetrics.Call pending = null;
+        try (OpenAiLimiter.Permit permit = limiter.acquire(promptChars)) {
+            LlmMetrics.Call call = metrics.start(model, LlmMetrics.ENDPOINT_PROMPT_STREAM);
+            pending = call;
+            try (StreamResponse<ChatCompletionChunk> stream = client.chat().completions().createStreaming(createParams)) {
+                stream.stream().forEach(chunk -> {
+                    done.model(chunk.model());
+                    for (ChatCompletionChunk.Choice choice : chunk.choices()) {
+                        choice.finishReason().ifPresent(reason -> finishReason.set(reason.asString()));
+                        Optional<String> delta = choice.delta().content();
+                        if (delta.isPresent() && !delta.get().isEmpty()) {
+                            call.token();
+                            send(emitter, SseEmitter.event().name("delta").data(delta.get()));
+                        }
+                    }
+                    chunk.usage().ifPresent(usage -> {
+                        log.info(usage.toString());
+                        call.usage(usage);
+                        permit.recordUsage(usage.totalTokens());
+                        done.promptTokens((int) usage.promptTokens())
+                                .completionTokens((int) usage.completionTokens())
+                                .totalTokens((int) usage.totalTokens());
+                    });
+                });
+            }
+            call.success();
+            pending = null;
+            send(emitter, SseEmitter.event().name("done").data(done.finishReason(finishReason.get()).build()));
+            emitter.complete();
+        } catch (RuntimeException e) {
+            if (pending != null) {
+                pending.failure();
+            }
+            log.warn("OpenAI stream failed: {}", e.toString());
+            try {
+                emitter.send(SseEmitter.event().name("error").data(String.valueOf(e.getMessage())));
+            } catch (IOException | IllegalStateException ignored) {
+                // client already gone
+            }
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            // client went away; abort the stream so the HTTP call to OpenAI is closed as well
+            throw new IllegalStateException("SSE client disconnected", e);
+        }
+    }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.openai;
+
+import com.netz_ai.aws_controller.properties.OpenAiProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side limiter for outbound OpenAI completions:
+ * <ul>
+ *     <li>a permit pool capping completions in flight ({@code openai.limiter.max-concurrent});</li>
+ *     <li>token buckets for the account's requests and tokens per minute, so bursts queue here instead of
+ *     coming back as 429s;</li>
+ *     <li>a bounded wait queue: once {@code max-queue} callers are waiting, or a caller has waited
+ *     {@code max-wait}, the call fails fast with 503.</li>
+ * </ul>
+ * Token usage is reserved up front from an estimate and corrected once the response reports actual usage.
+ */
+@Slf4j
+@Component
+public class OpenAiLimiter {
+    private final OpenAiProperties.Limiter props;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+
+    public OpenAiLimiter(OpenAiProperties properties) {
+        this.props = properties.getLimiter();
+        this.permits = new Semaphore(props.getMaxConcurrent(), true);
+        this.requestBucket = new TokenBucket(props.getRequestsPerMinute());
+        this.tokenBucket = new TokenBucket(props.getTokensPerMinute());
+    }
+
+    /**
+     * Wait for a permit and rate budget for one completion.
+     * @param promptChars size of the prompt sent, used to estimate prompt tokens (~4 chars per token)
+     * @throws ResponseStatusException 503 if the wait queue is full or the budget is not available within max-wait
+     */
+    public Permit acquire(int promptChars) {
+        int estimate = promptChars / 4 + props.getEstimatedCompletionTokens();
+        if (!props.isEnabled()) {
+            return new Permit(estimate, false);
+        }
+        if (waiting.incrementAndGet() > props.getMaxQueue()) {
+            waiting.decrementAndGet();
+            throw unavailable("OpenAI request queue is full");
+        }
+        long deadline = System.nanoTime() + props.getMaxWait().toNanos();
+        boolean acquired = false;
+        boolean requestTaken = false;
+        Permit permit = null;
+        try {
+            acquired = permits.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw unavailable("Timed out waiting for an OpenAI permit");
+            }
+            requestBucket.take(1, deadline);
+            requestTaken = true;
+            tokenBucket.take(estimate, deadline);
+            permit = new Permit(estimate, true);
+            return permit;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unavailable("Interrupted waiting for an OpenAI permit");
+        } finally {
+            waiting.decrementAndGet();
+            if (permit == null) {
+                // not admitted: give back the concurrency slot and the request-rate unit already taken
+                if (requestTaken) {
+                    requestBucket.adjust(-1);
+                }
+                if (acquired) {
+                    permits.release();
+                }
+            }
+        }
+    }
+
+    public int inFlight() {
+        return props.getMaxConcurrent() - permits.availablePermits();
+    }
+
+    public int queued() {
+        return waiting.get();
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static ResponseStatusException unavailable(String reason) {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, reason);
+    }
+
+    /**
+     * One admitted completion. Report the actual usage once known and close it when the call has finished.
+     */
+    public final class Permit implements AutoCloseable {
+        private final int reservedTokens;
+        private final boolean held;
+        private boolean closed;
+
+        private Permit(int reservedTokens, boolean held) {
+            this.reservedTokens = reservedTokens;
+            this.held = held;
+        }
+
+        /**
+         * Correct the token bucket by the difference between the estimate and the reported total tokens.
+         */
+        public void recordUsage(long totalTokens) {
+            if (held) {
+                tokenBucket.adjust(totalTokens - reservedTokens);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (held && !closed) {
+                closed = true;
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Continuously refilling bucket of {@code perMinute} units; the balance may go negative after
+     * {@link #adjust} so under-estimated calls are paid back by later ones.
+     */
+    static final class TokenBucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double capacity;
+        private final double perNano;
+        private double available;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(int perMinute) {
+            this.capacity = perMinute;
+            this.perNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.available = perMinute;
+        }
+
+        void take(int amount, long deadline) throws InterruptedException {
+            if (capacity <= 0) {
+                return;
+            }
+            double need = Math.min(amount, capacity);
+            while (true) {
+                long waitNanos;
+                lock.lock();
+                try {
+                    refill();
+                    if (available >= need) {
+                        available -= amount;
+                        return;
+                    }
+                    waitNanos = (long) Math.ceil((need - available) / perNano);
+                } finally {
+                    lock.unlock();
+                }
+                if (System.nanoTime() + waitNanos > deadline) {
+                    throw unavailable("OpenAI rate budget exhausted");
+                }
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+
+        void adjust(long delta) {
+            if (capacity <= 0 || delta == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                refill();
+                available = Math.min(capacity, available - delta);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            available = Math.min(capacity, available + (now - refilledAt) * perNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.openai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netz_ai.aws_controller.entity.PromptCacheEntry;
+import com.netz_ai.aws_controller.repository.PromptCacheEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of planner results keyed by model and normalized prompt, so repeated intents skip the LLM.
+ * <ul>
+ *     <li>In memory: Caffeine, bounded by {@code openai.prompt-cache.max-size} and expiring
+ *     {@code openai.prompt-cache.ttl} after write.</li>
+ *     <li>Optionally persisted to the datasource ({@code openai.prompt-cache.persist=true}) so results survive
+ *     restarts and are shared between replicas; the database is consulted on an in-memory miss.</li>
+ * </ul>
+ * Values are the raw model JSON, so every hit is parsed into a fresh, mutable request.
+ * Metrics: {@code cache.gets/puts/evictions{cache=openai.prompt}} and
+ * {@code openai.prompt.cache.store{result=hit|miss}} for the persistent tier.
+ */
+@Slf4j
+@Component
+public class PromptCache {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String CACHE_NAME = "openai.prompt";
+
+    private final Cache<String, String> cache;
+    private final ObjectProvider<PromptCacheEntryRepository> repository;
+    private final Counter storeHits;
+    private final Counter storeMisses;
+    private final Duration ttl;
+
+    @Value("${openai.prompt-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${openai.prompt-cache.persist:false}")
+    private boolean persist;
+
+    public PromptCache(ObjectProvider<PromptCacheEntryRepository> repository,
+                       MeterRegistry meterRegistry,
+                       @Value("${openai.prompt-cache.max-size:1000}") long maxSize,
+                       @Value("${openai.prompt-cache.ttl:P1D}") Duration ttl) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.storeHits = Counter.builder(CACHE_NAME + ".cache.store").tag("result", "hit").register(meterRegistry);
+        this.storeMisses = Counter.builder(CACHE_NAME + ".cache.store").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Cached model JSON for the prompt and model, if any.
+     */
+    public Optional<String> get(String model, String prompt) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = key(model, prompt);
+        String json = cache.getIfPresent(key);
+        if (json == null && persistent()) {
+            json = loadPersisted(key);
+            if (json != null) {
+                cache.put(key, json);
+            }
+        }
+        return Optional.ofNullable(json);
+    }
+
+    /**
+     * Remember the model JSON for the prompt and model. Only call this with output that parsed successfully.
+     */
+    public void put(String model, String prompt, String json) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(model, prompt);
+        cache.put(key, json);
+        if (persistent()) {
+            try {
+                repository.getObject().save(PromptCacheEntry.builder()
+                        .keyHash(sha256(key))
+                        .model(model)
+                        .prompt(normalize(prompt))
+                        .responseJson(json)
+                        .createdAt(Instant.now())
+                        .build());
+            } catch (RuntimeException e) {
+                log.warn("Could not persist prompt cache entry: {}", e.toString());
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        if (persistent()) {
+            repository.getObject().deleteAllInBatch();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${openai.prompt-cache.purge-interval:PT1H}")
+    void purgeExpired() {
+        if (enabled && persistent()) {
+            int removed = repository.getObject().deleteOlderThan(Instant.now().minus(ttl));
+            if (removed > 0) {
+                log.debug("Purged {} expired prompt cache entries", removed);
+            }
+        }
+    }
+
+    /**
+     * Case, Unicode form and whitespace do not change the intent of a prompt.
+     */
+    static String normalize(String prompt) {
+        String s = Normalizer.normalize(prompt == null ? "" : prompt, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(s.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    static String key(String model, String prompt) {
+        return model + '\n' + normalize(prompt);
+    }
+
+    private boolean persistent() {
+        return persist && repository.getIfAvailable() != null;
+    }
+
+    private String loadPersisted(String key) {
+        try {
+            Optional<PromptCacheEntry> entry = repository.getObject().findById(sha256(key))
+                    .filter(e -> e.getCreatedAt().plus(ttl).isAfter(Instant.now()));
+            (entry.isPresent() ? storeHits : storeMisses).increment();
+            return entry.map(PromptCacheEntry::getResponseJson).orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Prompt cache store lookup failed: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static String sha256(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+--
+-- Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+-- https://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Planner results cache (see PromptCache)
+CREATE TABLE IF NOT EXISTS prompt_cache_entry
+(
+    key_hash      VARCHAR(64)  NOT NULL,
+    model         VARCHAR(128) NOT NULL,
+    prompt        TEXT         NOT NULL,
+    response_json MEDIUMTEXT   NOT NULL,
+    created_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (key_hash),
+    INDEX idx_prompt_cache_created_at (created_at)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,45 @@
+--
+-- Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+-- https://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Instances launched, observed or terminated by the controller (see InstanceInventory)
+CREATE TABLE IF NOT EXISTS instance_inventory
+(
+    instance_id     VARCHAR(32)  NOT NULL,
+    name            VARCHAR(255),
+    instance_type   VARCHAR(64),
+    image_id        VARCHAR(64),
+    state           VARCHAR(32)  NOT NULL,
+    public_dns_name VARCHAR(255),
+    public_ip       VARCHAR(45),
+    launched_at     DATETIME(3),
+    terminated_at   DATETIME(3),
+    observed_at     DATETIME(3)  NOT NULL,
+    PRIMARY KEY (instance_id),
+    INDEX idx_instance_inventory_state (state)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS instance_state_transition
+(
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    instance_id VARCHAR(32) NOT NULL,
+    state       VARCHAR(32) NOT NULL,
+    source      VARCHAR(32) NOT NULL,
+    observed_at DATETIME(3) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_instance_state_transition_instance (instance_id, observed_at)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
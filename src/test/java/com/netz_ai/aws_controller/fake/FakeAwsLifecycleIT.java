@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.fake;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.netz_ai.aws_controller.constants.AWSConstants.BASE_URL_EC2;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full create / wait / terminate flows against {@link FakeAwsServer}, with many concurrent clients.
+ * Run with {@code mvn verify}; no AWS account or database is needed.
+ */
+@Slf4j
+@ActiveProfiles("fake-aws")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration",
+        "spring.docker.compose.enabled=false",
+        "spring.ai.openai.api-key=test",
+        "openai.api-key=test",
+        "openai.base-url=http://127.0.0.1:9",
+        "aws.access_key_id=fake",
+        "aws.secret_access_key=fake",
+        "aws.poller.interval=PT0.2S"
+})
+class FakeAwsLifecycleIT {
+    static final int CLIENTS = 50;
+
+    static final FakeAwsServer FAKE;
+
+    static {
+        System.setProperty("aws.accessKeyId", "fake");
+        System.setProperty("aws.secretAccessKey", "fake");
+        try {
+            FAKE = FakeAwsServer.start(FakeAwsServer.Options.builder()
+                    .latency(Duration.ofMillis(10))
+                    .pendingDuration(Duration.ofSeconds(1))
+                    .shuttingDownDuration(Duration.ofSeconds(1))
+                    .build());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void awsEndpoint(DynamicPropertyRegistry registry) {
+        registry.add("aws.endpoint-override", () -> FAKE.endpoint().toString());
+    }
+
+    @AfterAll
+    static void stopFake() {
+        FAKE.close();
+    }
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Test
+    void concurrentCreateWaitTerminate() throws Exception {
+        long start = System.nanoTime();
+        List<Future<String>> launched = new ArrayList<>();
+        try (ExecutorService clients = Executors.newFixedThreadPool(CLIENTS)) {
+            for (int n = 0; n < CLIENTS; n++) {
+                int index = n;
+                launched.add(clients.submit(() -> createAndWait("load-" + index)));
+            }
+            List<String> ids = new ArrayList<>();
+            for (Future<String> f : launched) {
+                ids.add(f.get());
+            }
+            long launchMs = (System.nanoTime() - start) / 1_000_000;
+
+            List<Future<String>> terminated = new ArrayList<>();
+            for (String id : ids) {
+                terminated.add(clients.submit(() -> terminateAndWait(id)));
+            }
+            for (Future<String> f : terminated) {
+                assertThat(f.get()).isEqualTo("terminated");
+            }
+            log.info("{} create+wait in {} ms; RunInstances={}, DescribeInstances={}, TerminateInstances={}",
+                    CLIENTS, launchMs, FAKE.calls("RunInstances"), FAKE.calls("DescribeInstances"),
+                    FAKE.calls("TerminateInstances"));
+        }
+
+        assertThat(FAKE.calls("RunInstances")).isEqualTo(CLIENTS);
+        assertThat(FAKE.calls("TerminateInstances")).isEqualTo(CLIENTS);
+    }
+
+    private String createAndWait(String name) {
+        CreateEc2Request req = new CreateEc2Request();
+        req.setName(name);
+        req.setSecurityGroups(List.of());
+        ResponseEntity<JsonNode> resp = rest.postForEntity(
+                BASE_URL_EC2 + "/wait-running?timeoutSeconds=60&pollSeconds=1", req, JsonNode.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(resp.getBody()).isNotNull();
+        assertThat(resp.getBody().path("state").asText()).isEqualTo("running");
+        assertThat(resp.getBody().path("nameTag").asText()).isEqualTo(name);
+        return resp.getBody().path("instanceId").asText();
+    }
+
+    private String terminateAndWait(String instanceId) {
+        ResponseEntity<JsonNode> resp = rest.exchange(
+                BASE_URL_EC2 + "/" + instanceId + "?wait=true&timeoutSeconds=60&pollSeconds=1",
+                HttpMethod.DELETE, null, JsonNode.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getBody()).isNotNull();
+        return resp.getBody().path("finalState").asText();
+    }
+}
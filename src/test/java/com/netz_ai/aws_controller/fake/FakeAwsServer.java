@@ -0,0 +1,507 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.fake;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the AWS endpoints the controller talks to, for offline flow and load tests.
+ * It speaks just enough of each wire protocol for the SDK clients configured with
+ * {@code aws.endpoint-override}:
+ * <ul>
+ *     <li>EC2 Query protocol: RunInstances, DescribeInstances, TerminateInstances, CreateTags</li>
+ *     <li>SSM JSON 1.1: GetParameter</li>
+ *     <li>STS Query protocol: GetCallerIdentity</li>
+ * </ul>
+ * Instance states advance on a timer ({@link Options#pendingDuration}, {@link Options#shuttingDownDuration}),
+ * every request can be delayed by {@link Options#latency}, and a fraction of requests is throttled
+ * according to {@link Options#throttleRate}.
+ * <p>
+ * Run standalone with {@code mvn exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.netz_ai.aws_controller.fake.FakeAwsServer} and start the app with the
+ * {@code fake-aws} profile.
+ */
+@Slf4j
+public class FakeAwsServer implements AutoCloseable {
+    private static final String EC2_NS = "http://ec2.amazonaws.com/doc/2016-11-15/";
+    private static final String STS_NS = "https://sts.amazonaws.com/doc/2011-06-15/";
+    private static final Pattern INDEXED = Pattern.compile("^(\\w+)\\.(\\d+)(?:\\.(.+))?$");
+    // DescribeInstances filters the fake evaluates (besides tag:<key>); others are rejected like EC2 does
+    private static final Set<String> FILTERS = Set.of("instance-id", "instance-state-name", "instance-type", "image-id",
+            "tag-key");
+
+    @Getter
+    private final Options options;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, FakeInstance> instances = new ConcurrentHashMap<>();
+    private final Map<String, String> reservationsByClientToken = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final AtomicLong throttled = new AtomicLong();
+
+    @Getter
+    @Builder
+    public static class Options {
+        @Builder.Default
+        int port = 0;
+        /** Added to every request before it is answered. */
+        @Builder.Default
+        Duration latency = Duration.ZERO;
+        /** Fraction (0..1) of requests answered with a throttling error. */
+        @Builder.Default
+        double throttleRate = 0;
+        /** Time an instance stays 'pending' after RunInstances. */
+        @Builder.Default
+        Duration pendingDuration = Duration.ofSeconds(2);
+        /** Time an instance stays 'shutting-down' after TerminateInstances. */
+        @Builder.Default
+        Duration shuttingDownDuration = Duration.ofSeconds(2);
+        /** Value returned for every SSM parameter. */
+        @Builder.Default
+        String amiId = "ami-0fa4e0000000000aa";
+        @Builder.Default
+        String account = "123456789012";
+    }
+
+    public FakeAwsServer(Options options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.getPort()), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    public static FakeAwsServer start(Options options) throws IOException {
+        FakeAwsServer fake = new FakeAwsServer(options);
+        fake.server.start();
+        log.info("Fake AWS endpoint listening on {}", fake.endpoint());
+        return fake;
+    }
+
+    public static void main(String[] args) throws IOException {
+        start(Options.builder()
+                .port(Integer.getInteger("fake.port", 4566))
+                .latency(Duration.ofMillis(Long.getLong("fake.latencyMs", 20)))
+                .throttleRate(Double.parseDouble(System.getProperty("fake.throttleRate", "0")))
+                .pendingDuration(Duration.ofMillis(Long.getLong("fake.pendingMs", 5_000)))
+                .shuttingDownDuration(Duration.ofMillis(Long.getLong("fake.shuttingDownMs", 5_000)))
+                .build());
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    /**
+     * Number of requests received for an action, e.g. {@code "DescribeInstances"} or {@code "GetParameter"}.
+     */
+    public long calls(String action) {
+        AtomicLong counter = calls.get(action);
+        return counter == null ? 0 : counter.get();
+    }
+
+    public long throttledCalls() {
+        return throttled.get();
+    }
+
+    public int instanceCount() {
+        return instances.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (!options.getLatency().isZero()) {
+                Thread.sleep(options.getLatency().toMillis());
+            }
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            if (target != null) {
+                handleJson(exchange, target, body);
+            } else {
+                handleQuery(exchange, parseForm(body));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Fake AWS request failed", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // --- SSM (JSON 1.1) ---------------------------------------------------------------------------
+
+    private void handleJson(HttpExchange exchange, String target, String body) throws IOException {
+        String action = target.substring(target.indexOf('.') + 1);
+        count(action);
+        if (throttle()) {
+            send(exchange, 400, "application/x-amz-json-1.1",
+                    "{\"__type\":\"ThrottlingException\",\"message\":\"Rate exceeded\"}");
+            return;
+        }
+        if (!"GetParameter".equals(action)) {
+            send(exchange, 400, "application/x-amz-json-1.1",
+                    "{\"__type\":\"InvalidAction\",\"message\":\"Unsupported action " + action + "\"}");
+            return;
+        }
+        Matcher m = Pattern.compile("\"Name\"\\s*:\\s*\"([^\"]+)\"").matcher(body);
+        String name = m.find() ? m.group(1) : "";
+        send(exchange, 200, "application/x-amz-json-1.1",
+                "{\"Parameter\":{\"Name\":\"" + name + "\",\"Type\":\"String\",\"Value\":\""
+                        + options.getAmiId() + "\",\"Version\":1,\"DataType\":\"aws:ec2:image\"}}");
+    }
+
+    // --- EC2 / STS (Query) ------------------------------------------------------------------------
+
+    private void handleQuery(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String action = params.getOrDefault("Action", "");
+        count(action);
+        if ("GetCallerIdentity".equals(action)) {
+            if (throttle()) {
+                send(exchange, 400, "text/xml", "<ErrorResponse xmlns=\"" + STS_NS + "\"><Error><Type>Sender</Type>"
+                        + "<Code>Throttling</Code><Message>Rate exceeded</Message></Error>"
+                        + "<RequestId>" + UUID.randomUUID() + "</RequestId></ErrorResponse>");
+                return;
+            }
+            send(exchange, 200, "text/xml", "<GetCallerIdentityResponse xmlns=\"" + STS_NS + "\">"
+                    + "<GetCallerIdentityResult>"
+                    + "<Arn>arn:aws:iam::" + options.getAccount() + ":user/fake</Arn>"
+                    + "<UserId>AIDAFAKEUSER</UserId>"
+                    + "<Account>" + options.getAccount() + "</Account>"
+                    + "</GetCallerIdentityResult>"
+                    + "<ResponseMetadata><RequestId>" + UUID.randomUUID() + "</RequestId></ResponseMetadata>"
+                    + "</GetCallerIdentityResponse>");
+            return;
+        }
+        if (throttle()) {
+            ec2Error(exchange, 503, "RequestLimitExceeded", "Request limit exceeded.");
+            return;
+        }
+        switch (action) {
+            case "RunInstances" -> runInstances(exchange, params);
+            case "DescribeInstances" -> describeInstances(exchange, params);
+            case "TerminateInstances" -> terminateInstances(exchange, params);
+            case "CreateTags" -> createTags(exchange, params);
+            default -> ec2Error(exchange, 400, "InvalidAction", "The action " + action + " is not valid for this web service.");
+        }
+    }
+
+    private void runInstances(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String clientToken = params.get("ClientToken");
+        if (clientToken != null && reservationsByClientToken.containsKey(clientToken)) {
+            String reservationId = reservationsByClientToken.get(clientToken);
+            List<FakeInstance> existing = instances.values().stream()
+                    .filter(i -> i.reservationId.equals(reservationId)).toList();
+            send(exchange, 200, "text/xml", reservationXml("RunInstancesResponse", reservationId, existing));
+            return;
+        }
+
+        int count = Integer.parseInt(params.getOrDefault("MaxCount", "1"));
+        Map<String, String> tags = new LinkedHashMap<>();
+        indexed(params, "TagSpecification").values().forEach(spec ->
+                indexed(spec, "Tag").values().forEach(tag -> tags.put(tag.get("Key"), tag.getOrDefault("Value", ""))));
+
+        String reservationId = "r-" + hex(17);
+        List<FakeInstance> launched = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            FakeInstance instance = new FakeInstance("i-" + hex(17), reservationId,
+                    params.getOrDefault("ImageId", options.getAmiId()),
+                    params.getOrDefault("InstanceType", "t2.micro"),
+                    Instant.now().truncatedTo(ChronoUnit.MILLIS), new ConcurrentHashMap<>(tags));
+            instances.put(instance.instanceId, instance);
+            launched.add(instance);
+        }
+        if (clientToken != null) {
+            reservationsByClientToken.put(clientToken, reservationId);
+        }
+        send(exchange, 200, "text/xml", reservationXml("RunInstancesResponse", reservationId, launched));
+    }
+
+    private void describeInstances(HttpExchange exchange, Map<String, String> params) throws IOException {
+        List<String> ids = values(params, "InstanceId");
+        for (String id : ids) {
+            if (!instances.containsKey(id)) {
+                ec2Error(exchange, 400, "InvalidInstanceID.NotFound", "The instance ID '" + id + "' does not exist");
+                return;
+            }
+        }
+        Map<String, List<String>> filters = new HashMap<>();
+        indexed(params, "Filter").values().forEach(f -> filters.put(f.get("Name"), values(f, "Value")));
+        for (String filter : filters.keySet()) {
+            if (filter == null || !(filter.startsWith("tag:") || FILTERS.contains(filter))) {
+                ec2Error(exchange, 400, "InvalidParameterValue", "The filter '" + filter + "' is invalid");
+                return;
+            }
+        }
+
+        Instant now = Instant.now();
+        Map<String, List<FakeInstance>> byReservation = new LinkedHashMap<>();
+        instances.values().stream()
+                .filter(i -> ids.isEmpty() || ids.contains(i.instanceId))
+                .filter(i -> filters.entrySet().stream().allMatch(f -> i.matches(f.getKey(), f.getValue(), now)))
+                .forEach(i -> byReservation.computeIfAbsent(i.reservationId, k -> new ArrayList<>()).add(i));
+
+        StringBuilder xml = new StringBuilder("<DescribeInstancesResponse xmlns=\"" + EC2_NS + "\">")
+                .append("<requestId>").append(UUID.randomUUID()).append("</requestId><reservationSet>");
+        byReservation.forEach((reservationId, list) -> xml.append("<item>")
+                .append(reservationBody(reservationId, list, now))
+                .append("</item>"));
+        xml.append("</reservationSet></DescribeInstancesResponse>");
+        send(exchange, 200, "text/xml", xml.toString());
+    }
+
+    private void terminateInstances(HttpExchange exchange, Map<String, String> params) throws IOException {
+        List<String> ids = values(params, "InstanceId");
+        for (String id : ids) {
+            if (!instances.containsKey(id)) {
+                ec2Error(exchange, 400, "InvalidInstanceID.NotFound", "The instance ID '" + id + "' does not exist");
+                return;
+            }
+        }
+        Instant now = Instant.now();
+        StringBuilder xml = new StringBuilder("<TerminateInstancesResponse xmlns=\"" + EC2_NS + "\">")
+                .append("<requestId>").append(UUID.randomUUID()).append("</requestId><instancesSet>");
+        for (String id : ids) {
+            FakeInstance instance = instances.get(id);
+            String previous = instance.state(now);
+            instance.terminate(now);
+            xml.append("<item><instanceId>").append(id).append("</instanceId>")
+                    .append("<currentState>").append(stateXml(instance.state(now))).append("</currentState>")
+                    .append("<previousState>").append(stateXml(previous)).append("</previousState></item>");
+        }
+        xml.append("</instancesSet></TerminateInstancesResponse>");
+        send(exchange, 200, "text/xml", xml.toString());
+    }
+
+    private void createTags(HttpExchange exchange, Map<String, String> params) throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        indexed(params, "Tag").values().forEach(tag -> tags.put(tag.get("Key"), tag.getOrDefault("Value", "")));
+        for (String id : values(params, "ResourceId")) {
+            FakeInstance instance = instances.get(id);
+            if (instance != null) {
+                instance.tags.putAll(tags);
+            }
+        }
+        send(exchange, 200, "text/xml", "<CreateTagsResponse xmlns=\"" + EC2_NS + "\"><requestId>"
+                + UUID.randomUUID() + "</requestId><return>true</return></CreateTagsResponse>");
+    }
+
+    private String reservationXml(String root, String reservationId, List<FakeInstance> list) {
+        return "<" + root + " xmlns=\"" + EC2_NS + "\"><requestId>" + UUID.randomUUID() + "</requestId>"
+                + reservationBody(reservationId, list, Instant.now()) + "</" + root + ">";
+    }
+
+    private String reservationBody(String reservationId, List<FakeInstance> list, Instant now) {
+        StringBuilder xml = new StringBuilder()
+                .append("<reservationId>").append(reservationId).append("</reservationId>")
+                .append("<ownerId>").append(options.getAccount()).append("</ownerId>")
+                .append("<groupSet/><instancesSet>");
+        for (FakeInstance i : list) {
+            String state = i.state(now);
+            xml.append("<item>")
+                    .append("<instanceId>").append(i.instanceId).append("</instanceId>")
+                    .append("<imageId>").append(esc(i.imageId)).append("</imageId>")
+                    .append("<instanceState>").append(stateXml(state)).append("</instanceState>")
+                    .append("<instanceType>").append(esc(i.instanceType)).append("</instanceType>")
+                    .append("<launchTime>").append(i.launchTime).append("</launchTime>");
+            if ("running".equals(state)) {
+                xml.append("<dnsName>ec2-").append(i.publicIp().replace('.', '-'))
+                        .append(".compute-1.amazonaws.com</dnsName>")
+                        .append("<ipAddress>").append(i.publicIp()).append("</ipAddress>");
+            }
+            xml.append("<tagSet>");
+            i.tags.forEach((k, v) -> xml.append("<item><key>").append(esc(k)).append("</key><value>")
+                    .append(esc(v)).append("</value></item>"));
+            xml.append("</tagSet></item>");
+        }
+        return xml.append("</instancesSet>").toString();
+    }
+
+    private static String stateXml(String state) {
+        int code = switch (state) {
+            case "running" -> 16;
+            case "shutting-down" -> 32;
+            case "terminated" -> 48;
+            default -> 0;
+        };
+        return "<code>" + code + "</code><name>" + state + "</name>";
+    }
+
+    private void ec2Error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        send(exchange, status, "text/xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Response><Errors><Error>"
+                + "<Code>" + code + "</Code><Message>" + esc(message) + "</Message></Error></Errors>"
+                + "<RequestID>" + UUID.randomUUID() + "</RequestID></Response>");
+    }
+
+    // --- helpers ----------------------------------------------------------------------------------
+
+    private boolean throttle() {
+        if (options.getThrottleRate() > 0 && ThreadLocalRandom.current().nextDouble() < options.getThrottleRate()) {
+            throttled.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void count(String action) {
+        calls.computeIfAbsent(action, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("x-amzn-RequestId", UUID.randomUUID().toString());
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (String pair : body.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    /**
+     * Groups {@code Prefix.N.Rest=value} parameters by N into maps of {@code Rest=value}.
+     */
+    private static SortedMap<Integer, Map<String, String>> indexed(Map<String, String> params, String prefix) {
+        SortedMap<Integer, Map<String, String>> result = new TreeMap<>();
+        params.forEach((key, value) -> {
+            Matcher m = INDEXED.matcher(key);
+            if (m.matches() && m.group(1).equals(prefix) && m.group(3) != null) {
+                result.computeIfAbsent(Integer.parseInt(m.group(2)), k -> new LinkedHashMap<>()).put(m.group(3), value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Values of a {@code Prefix.N=value} list parameter, in index order.
+     */
+    private static List<String> values(Map<String, String> params, String prefix) {
+        SortedMap<Integer, String> result = new TreeMap<>();
+        params.forEach((key, value) -> {
+            Matcher m = INDEXED.matcher(key);
+            if (m.matches() && m.group(1).equals(prefix) && m.group(3) == null) {
+                result.put(Integer.parseInt(m.group(2)), value);
+            }
+        });
+        return new ArrayList<>(result.values());
+    }
+
+    private static String hex(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int n = 0; n < length; n++) {
+            sb.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return sb.toString();
+    }
+
+    private static String esc(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private final class FakeInstance {
+        private final String instanceId;
+        private final String reservationId;
+        private final String imageId;
+        private final String instanceType;
+        private final Instant launchTime;
+        private final Map<String, String> tags;
+        private volatile Instant terminatedAt;
+
+        private FakeInstance(String instanceId, String reservationId, String imageId, String instanceType,
+                             Instant launchTime, Map<String, String> tags) {
+            this.instanceId = instanceId;
+            this.reservationId = reservationId;
+            this.imageId = imageId;
+            this.instanceType = instanceType;
+            this.launchTime = launchTime;
+            this.tags = tags;
+        }
+
+        String state(Instant now) {
+            if (terminatedAt != null) {
+                return now.isBefore(terminatedAt.plus(options.getShuttingDownDuration())) ? "shutting-down" : "terminated";
+            }
+            return now.isBefore(launchTime.plus(options.getPendingDuration())) ? "pending" : "running";
+        }
+
+        void terminate(Instant now) {
+            if (terminatedAt == null) {
+                terminatedAt = now;
+            }
+        }
+
+        String publicIp() {
+            int h = Math.abs(instanceId.hashCode());
+            return "203.0." + (h % 250) + "." + (h / 250 % 250 + 1);
+        }
+
+        boolean matches(String filter, List<String> accepted, Instant now) {
+            if (filter.startsWith("tag:")) {
+                return accepted.contains(tags.get(filter.substring(4)));
+            }
+            return switch (filter) {
+                case "instance-id" -> accepted.contains(instanceId);
+                case "instance-state-name" -> accepted.contains(state(now));
+                case "instance-type" -> accepted.contains(instanceType);
+                case "image-id" -> accepted.contains(imageId);
+                case "tag-key" -> accepted.stream().anyMatch(tags::containsKey);
+                default -> throw new IllegalArgumentException("Unsupported filter " + filter);
+            };
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.fake;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netz_ai.aws_controller.dto.aws.CreateFleetRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.netz_ai.aws_controller.constants.AWSConstants.BASE_URL_EC2;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thousands of concurrent {@code /wait-running} requests in virtual-thread mode against {@link FakeAwsServer}.
+ * Every request blocks until its instance leaves 'pending'; with virtual threads they all wait at once without
+ * a platform thread each, so the wall time stays close to the fake's pending duration.
+ * Size with {@code -Dload.clients=N} (default 2000).
+ */
+@Slf4j
+@ActiveProfiles("fake-aws")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration",
+        "spring.docker.compose.enabled=false",
+        "spring.ai.openai.api-key=test",
+        "openai.api-key=test",
+        "openai.base-url=http://127.0.0.1:9",
+        "aws.access_key_id=fake",
+        "aws.secret_access_key=fake",
+        "aws.poller.interval=PT0.5S",
+        "spring.threads.virtual.enabled=true",
+        // the platform request pool this mode replaces; far below the number of concurrent requests
+        "server.tomcat.threads.max=50",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=2000"
+})
+class WaitRunningLoadIT {
+    static final int CLIENTS = Integer.getInteger("load.clients", 2000);
+    static final int FLEET_SIZE = 500;
+    static final Duration PENDING = Duration.ofSeconds(3);
+
+    static final FakeAwsServer FAKE;
+
+    static {
+        System.setProperty("aws.accessKeyId", "fake");
+        System.setProperty("aws.secretAccessKey", "fake");
+        try {
+            FAKE = FakeAwsServer.start(FakeAwsServer.Options.builder()
+                    .latency(Duration.ofMillis(10))
+                    .pendingDuration(PENDING)
+                    .build());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void awsEndpoint(DynamicPropertyRegistry registry) {
+        registry.add("aws.endpoint-override", () -> FAKE.endpoint().toString());
+    }
+
+    @AfterAll
+    static void stopFake() {
+        FAKE.close();
+    }
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void thousandsOfConcurrentWaits() throws Exception {
+        List<String> ids = launch(CLIENTS);
+        assertThat(ids).hasSize(CLIENTS);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long describesBefore = FAKE.calls("DescribeInstances");
+        long start = System.nanoTime();
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientThreads)
+                    .build();
+            List<CompletableFuture<HttpResponse<String>>> waits = new ArrayList<>();
+            for (String id : ids) {
+                HttpRequest req = HttpRequest.newBuilder(URI.create(
+                                "http://127.0.0.1:" + port + BASE_URL_EC2 + "/" + id + "/wait-running?timeoutSeconds=60"))
+                        .timeout(Duration.ofSeconds(90))
+                        .GET()
+                        .build();
+                waits.add(http.sendAsync(req, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> wait : waits) {
+                HttpResponse<String> resp = wait.join();
+                assertThat(resp.statusCode()).isEqualTo(200);
+                assertThat(objectMapper.readTree(resp.body()).path("state").asText()).isEqualTo("running");
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        int peakPlatformThreads = threads.getPeakThreadCount();
+        long describes = FAKE.calls("DescribeInstances") - describesBefore;
+        log.info("{} concurrent wait-running in {} ms; peak platform threads={}, DescribeInstances calls={}",
+                CLIENTS, elapsed.toMillis(), peakPlatformThreads, describes);
+
+        // all waits overlapped: roughly one pending period, not CLIENTS / pool size of them
+        assertThat(elapsed).isLessThan(PENDING.plusSeconds(30));
+        // no platform thread per waiting request (ThreadMXBean does not count virtual threads)
+        assertThat(peakPlatformThreads).isLessThan(CLIENTS / 4);
+        // waits are served by the shared, batched poller
+        assertThat(describes).isLessThan(CLIENTS / 10);
+    }
+
+    private List<String> launch(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int launched = 0; launched < count; launched += FLEET_SIZE) {
+            CreateFleetRequest req = new CreateFleetRequest();
+            req.setName("wait-load");
+            req.setSecurityGroups(List.of());
+            req.setCount(Math.min(FLEET_SIZE, count - launched));
+            ResponseEntity<JsonNode> resp = rest.postForEntity(BASE_URL_EC2 + "/fleet", req, JsonNode.class);
+            assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(resp.getBody()).isNotNull();
+            resp.getBody().path("instances").forEach(i -> ids.add(i.path("instanceId").asText()));
+        }
+        return ids;
+    }
+}
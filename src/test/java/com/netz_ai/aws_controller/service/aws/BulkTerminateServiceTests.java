@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.dto.aws.BulkTerminateResponse;
+import com.netz_ai.aws_controller.dto.aws.TerminateEc2Response;
+import com.netz_ai.aws_controller.properties.AwsProps;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.services.ec2.model.Ec2Exception;
+import software.amazon.awssdk.services.ec2.model.InstanceStateChange;
+import software.amazon.awssdk.services.ec2.model.InstanceStateName;
+import software.amazon.awssdk.services.ec2.model.TerminateInstancesRequest;
+import software.amazon.awssdk.services.ec2.model.TerminateInstancesResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chunking and error isolation of {@link BulkTerminateService} against a mocked TerminateInstances.
+ */
+class BulkTerminateServiceTests {
+    static final Region REGION = Region.EU_CENTRAL_1;
+
+    final Ec2Client ec2 = mock(Ec2Client.class);
+    final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    // a call containing one of these IDs is rejected as a whole, as EC2 does for unknown IDs
+    volatile Set<String> unknown = Set.of();
+    volatile RuntimeException failure;
+
+    ThreadPoolTaskExecutor executor;
+    BulkTerminateService service;
+
+    @BeforeEach
+    void setUp() {
+        when(ec2.terminateInstances(any(TerminateInstancesRequest.class))).thenAnswer(inv -> {
+            List<String> ids = ((TerminateInstancesRequest) inv.getArgument(0)).instanceIds();
+            calls.add(ids);
+            if (failure != null) {
+                throw failure;
+            }
+            if (ids.stream().anyMatch(unknown::contains)) {
+                throw ec2Error("InvalidInstanceID.NotFound");
+            }
+            return TerminateInstancesResponse.builder()
+                    .terminatingInstances(ids.stream()
+                            .map(id -> InstanceStateChange.builder()
+                                    .instanceId(id)
+                                    .previousState(s -> s.name(InstanceStateName.RUNNING))
+                                    .currentState(s -> s.name(InstanceStateName.SHUTTING_DOWN))
+                                    .build())
+                            .toList())
+                    .build();
+        });
+        AwsClientRegistry clients = mock(AwsClientRegistry.class);
+        when(clients.ec2(REGION)).thenReturn(ec2);
+        when(clients.defaultRegion()).thenReturn(REGION);
+
+        AwsProps awsProps = new AwsProps();
+        awsProps.getRateLimit().setEnabled(false);
+        awsProps.getCircuitBreaker().setEnabled(false);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        service = new BulkTerminateService(clients, new Ec2Resilience(awsProps, new SimpleMeterRegistry()),
+                mock(Ec2Service.class), mock(InstanceStatePoller.class), mock(InstanceStateCache.class),
+                mock(InstanceInventory.class), executor);
+        ReflectionTestUtils.setField(service, "chunkSize", 4);
+        ReflectionTestUtils.setField(service, "maxInstances", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void idsAreSentInChunks() {
+        BulkTerminateResponse resp = terminate("i-1", "i-2", "i-3", "i-4", "i-5", "i-1");
+
+        assertThat(calls).containsExactlyInAnyOrder(List.of("i-1", "i-2", "i-3", "i-4"), List.of("i-5"));
+        assertThat(resp.getRequestedCount()).isEqualTo(5);
+        assertThat(resp.getTerminatingCount()).isEqualTo(5);
+        assertThat(resp.getFailedCount()).isZero();
+        assertThat(byId(resp).get("i-5").getCurrentState()).isEqualTo("shutting-down");
+    }
+
+    @Test
+    void rejectedChunkIsBisectedToIsolateUnknownIds() {
+        unknown = Set.of("i-3");
+
+        BulkTerminateResponse resp = terminate("i-1", "i-2", "i-3", "i-4");
+
+        // [1,2,3,4] -> [1,2] ok, [3,4] -> [3] rejected, [4] ok
+        assertThat(calls).hasSize(5);
+        assertThat(resp.getTerminatingCount()).isEqualTo(3);
+        assertThat(resp.getFailedCount()).isEqualTo(1);
+        assertThat(byId(resp).get("i-3").getError()).isEqualTo("InvalidInstanceID.NotFound");
+        assertThat(byId(resp).get("i-4").getError()).isNull();
+    }
+
+    @Test
+    void errorsSplittingWouldNotResolveAreReportedForTheWholeChunk() {
+        failure = ec2Error("UnauthorizedOperation");
+
+        BulkTerminateResponse resp = terminate("i-1", "i-2", "i-3");
+
+        assertThat(calls).hasSize(1);
+        assertThat(resp.getFailedCount()).isEqualTo(3);
+        assertThat(resp.getInstances()).allMatch(r -> "UnauthorizedOperation".equals(r.getError()));
+    }
+
+    @Test
+    void clientFailuresAreReportedPerInstance() {
+        failure = SdkClientException.create("connection reset");
+
+        BulkTerminateResponse resp = terminate("i-1", "i-2", "i-3", "i-4", "i-5");
+
+        assertThat(resp.getTerminatingCount()).isZero();
+        assertThat(resp.getFailedCount()).isEqualTo(5);
+        assertThat(resp.getInstances()).allMatch(r -> "connection reset".equals(r.getError()));
+    }
+
+    @Test
+    void selectionAboveMaxInstancesIsRejected() {
+        assertThatThrownBy(() -> terminate("i-1", "i-2", "i-3", "i-4", "i-5", "i-6", "i-7", "i-8", "i-9", "i-10", "i-11"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThat(calls).isEmpty();
+    }
+
+    private BulkTerminateResponse terminate(String... ids) {
+        return service.terminate(List.of(ids), null, false, Duration.ofMinutes(1));
+    }
+
+    private static Map<String, TerminateEc2Response> byId(BulkTerminateResponse resp) {
+        return resp.getInstances().stream()
+                .collect(Collectors.toMap(TerminateEc2Response::getInstanceId, Function.identity()));
+    }
+
+    private static Ec2Exception ec2Error(String code) {
+        return (Ec2Exception) Ec2Exception.builder()
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode(code).build())
+                .statusCode(400)
+                .build();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.properties.AwsProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+
+/**
+ * {@link Ec2Resilience.RateLimiter} spacing and rejection, and the {@link Ec2Resilience.CircuitBreaker} state machine.
+ */
+class Ec2ResilienceTests {
+    static final Region REGION = Region.EU_CENTRAL_1;
+    static final RuntimeException DEGRADED = SdkClientException.create("Unable to execute HTTP request: timed out");
+    static final RuntimeException BAD_REQUEST = new IllegalArgumentException("InvalidParameterValue");
+
+    final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void rateLimiterWithoutRateNeverWaits() {
+        Ec2Resilience.RateLimiter unlimited = limiter(null, Duration.ZERO);
+        Ec2Resilience.RateLimiter zero = limiter(0.0, Duration.ZERO);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(unlimited.reserve()).isZero();
+            assertThat(zero.reserve()).isZero();
+        }
+    }
+
+    @Test
+    void rateLimiterAllowsOneSecondBurstThenSpacesCalls() {
+        Ec2Resilience.RateLimiter limiter = limiter(10.0, Duration.ofSeconds(10));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.reserve()).isZero();
+        }
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+
+        assertThat(first).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(second - first)
+                .isCloseTo(TimeUnit.MILLISECONDS.toNanos(100), offset(TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+
+    @Test
+    void rateLimiterRejectsWaitsBeyondMaxWait() {
+        Ec2Resilience.RateLimiter limiter = limiter(1.0, Duration.ofMillis(500));
+
+        assertThat(limiter.reserve()).isZero();
+        assertUnavailable(limiter::reserve);
+        assertUnavailable(limiter::reserve);
+
+        assertThat(registry.get("test.rejected").counter().count()).isEqualTo(2);
+        assertThat(registry.get("test.waits").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void breakerStaysClosedBelowMinimumCalls() {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> { });
+
+        for (int i = 0; i < 3; i++) {
+            breaker.acquire();
+            breaker.record(DEGRADED);
+        }
+
+        assertThatCode(breaker::acquire).doesNotThrowAnyException();
+    }
+
+    @Test
+    void breakerOpensAtFailureRate() {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> { });
+
+        record(breaker, null, null, DEGRADED, DEGRADED);
+
+        assertUnavailable(breaker::acquire);
+        assertThat(registry.get("aws.circuit.calls").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("aws.circuit.calls").tag("outcome", "failure").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void breakerIgnoresClientErrors() {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> { });
+
+        record(breaker, BAD_REQUEST, BAD_REQUEST, BAD_REQUEST, BAD_REQUEST, BAD_REQUEST);
+
+        assertThatCode(breaker::acquire).doesNotThrowAnyException();
+    }
+
+    @Test
+    void breakerForgetsFailuresThatLeftTheWindow() {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> props.setFailureRateThreshold(0.75));
+
+        record(breaker, DEGRADED, DEGRADED, null, null, null, null, DEGRADED, DEGRADED);
+
+        // the window now holds success, success, failure, failure: 50% < 75%
+        assertThatCode(breaker::acquire).doesNotThrowAnyException();
+    }
+
+    @Test
+    void halfOpenBreakerClosesAfterSuccessfulProbes() {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> props.setOpenDuration(Duration.ZERO));
+        record(breaker, DEGRADED, DEGRADED, DEGRADED, DEGRADED);
+
+        breaker.acquire();
+        breaker.acquire();
+        assertUnavailable(breaker::acquire);
+        breaker.record(null);
+        breaker.record(null);
+
+        for (int i = 0; i < 10; i++) {
+            assertThatCode(breaker::acquire).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void halfOpenBreakerReopensOnFailedProbe() throws InterruptedException {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> props.setOpenDuration(Duration.ofMillis(200)));
+        record(breaker, DEGRADED, DEGRADED, DEGRADED, DEGRADED);
+        assertUnavailable(breaker::acquire);
+
+        Thread.sleep(250);
+        breaker.acquire();
+        breaker.record(DEGRADED);
+
+        assertUnavailable(breaker::acquire);
+    }
+
+    @Test
+    void releasedProbeCanBeRetried() {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> {
+            props.setOpenDuration(Duration.ZERO);
+            props.setHalfOpenCalls(1);
+        });
+        record(breaker, DEGRADED, DEGRADED, DEGRADED, DEGRADED);
+
+        breaker.acquire();
+        assertUnavailable(breaker::acquire);
+        breaker.release();
+
+        assertThatCode(breaker::acquire).doesNotThrowAnyException();
+    }
+
+    @Test
+    void disabledBreakerNeverRejects() {
+        Ec2Resilience.CircuitBreaker breaker = breaker(props -> props.setEnabled(false));
+
+        record(breaker, DEGRADED, DEGRADED, DEGRADED, DEGRADED, DEGRADED);
+
+        assertThatCode(breaker::acquire).doesNotThrowAnyException();
+    }
+
+    @Test
+    void degradedMeansThrottledServerErrorOrClientFailure() {
+        assertThat(Ec2Resilience.isDegraded(DEGRADED)).isTrue();
+        assertThat(Ec2Resilience.isDegraded(new CompletionException(DEGRADED))).isTrue();
+        assertThat(Ec2Resilience.isDegraded(BAD_REQUEST)).isFalse();
+        assertThat(Ec2Resilience.isDegraded(new ResponseStatusException(HttpStatus.NOT_FOUND))).isFalse();
+    }
+
+    private Ec2Resilience.RateLimiter limiter(Double perSecond, Duration maxWait) {
+        return new Ec2Resilience.RateLimiter(perSecond, maxWait,
+                Timer.builder("test.waits").register(registry),
+                Counter.builder("test.rejected").register(registry));
+    }
+
+    /**
+     * A breaker over a window of 4 calls that opens at 50% degraded calls once 4 calls were recorded, and lets
+     * 2 probes through when half-open; {@code customizer} adjusts these settings.
+     */
+    private Ec2Resilience.CircuitBreaker breaker(Consumer<AwsProps.CircuitBreaker> customizer) {
+        AwsProps awsProps = new AwsProps();
+        AwsProps.CircuitBreaker props = awsProps.getCircuitBreaker();
+        props.setWindowSize(4);
+        props.setMinimumCalls(4);
+        props.setFailureRateThreshold(0.5);
+        props.setOpenDuration(Duration.ofMinutes(1));
+        props.setHalfOpenCalls(2);
+        customizer.accept(props);
+        Ec2Resilience resilience = new Ec2Resilience(awsProps, registry);
+        return resilience.new CircuitBreaker(REGION);
+    }
+
+    private static void record(Ec2Resilience.CircuitBreaker breaker, RuntimeException... outcomes) {
+        for (RuntimeException outcome : outcomes) {
+            breaker.acquire();
+            breaker.record(outcome);
+        }
+    }
+
+    private static void assertUnavailable(ThrowingCallable call) {
+        assertThatThrownBy(call)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+}
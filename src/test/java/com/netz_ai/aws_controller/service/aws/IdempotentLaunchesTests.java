@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.ec2.model.Ec2Exception;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Key scoping, request comparison, in-flight sharing and failure handling of {@link IdempotentLaunches}.
+ */
+class IdempotentLaunchesTests {
+    static final String SCOPE = "ec2.create";
+    static final String KEY = "retry-1";
+
+    final AtomicInteger launches = new AtomicInteger();
+    IdempotentLaunches idempotent;
+
+    @BeforeEach
+    void setUp() {
+        idempotent = new IdempotentLaunches(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(idempotent, "enabled", true);
+    }
+
+    @Test
+    void withoutKeyEveryRequestLaunches() {
+        assertThat(idempotent.call(SCOPE, null, "req", this::launch)).isEqualTo("i-1");
+        assertThat(idempotent.call(SCOPE, " ", "req", this::launch)).isEqualTo("i-2");
+    }
+
+    @Test
+    void repeatedKeyReturnsFirstResult() {
+        assertThat(idempotent.call(SCOPE, KEY, "req", this::launch)).isEqualTo("i-1");
+        assertThat(idempotent.call(SCOPE, KEY, "req", this::launch)).isEqualTo("i-1");
+        assertThat(launches).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedPerEndpoint() {
+        assertThat(idempotent.call(SCOPE, KEY, "req", this::launch)).isEqualTo("i-1");
+        assertThat(idempotent.call("ec2.wait-running", KEY, "req", this::launch)).isEqualTo("i-2");
+    }
+
+    @Test
+    void differentRequestWithSameKeyIsRejected() {
+        idempotent.call(SCOPE, KEY, "req", this::launch);
+
+        assertStatus(() -> idempotent.call(SCOPE, KEY, "other", this::launch), HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(launches).hasValue(1);
+    }
+
+    @Test
+    void requestsAreComparedByEqualityNotHashCode() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        idempotent.call(SCOPE, KEY, "Aa", this::launch);
+
+        assertStatus(() -> idempotent.call(SCOPE, KEY, "BB", this::launch), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void concurrentRequestsShareTheInFlightLaunch() {
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        CompletableFuture<String> first = idempotent.execute(SCOPE, KEY, "req", () -> {
+            launches.incrementAndGet();
+            return inFlight;
+        });
+        CompletableFuture<String> second = idempotent.execute(SCOPE, KEY, "req", () -> {
+            launches.incrementAndGet();
+            return CompletableFuture.completedFuture("i-other");
+        });
+
+        assertThat(second).isNotDone();
+        inFlight.complete("i-1");
+
+        assertThat(first).isCompletedWithValue("i-1");
+        assertThat(second).isCompletedWithValue("i-1");
+        assertThat(launches).hasValue(1);
+    }
+
+    @Test
+    void callersCannotCompleteTheSharedResult() {
+        CompletableFuture<String> first = idempotent.execute(SCOPE, KEY, "req", CompletableFuture::new);
+        first.complete("forged");
+
+        CompletableFuture<String> second = idempotent.execute(SCOPE, KEY, "req", CompletableFuture::new);
+
+        assertThat(second).isNotDone();
+    }
+
+    @Test
+    void failedLaunchIsForgottenSoTheKeyCanBeRetried() {
+        assertStatus(() -> idempotent.call(SCOPE, KEY, "req", () -> {
+            launches.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "throttled");
+        }), HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertThat(idempotent.call(SCOPE, KEY, "req", this::launch)).isEqualTo("i-2");
+    }
+
+    @Test
+    void asyncFailureIsForgottenAndUnwrapped() {
+        CompletableFuture<String> failed = idempotent.execute(SCOPE, KEY, "req", () -> CompletableFuture.failedFuture(
+                new CompletionException(new IllegalStateException("boom"))));
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(idempotent.<String>execute(SCOPE, KEY, "req", () -> CompletableFuture.completedFuture("i-1")))
+                .isCompletedWithValue("i-1");
+    }
+
+    @Test
+    void ec2ParameterMismatchBecomes422() {
+        Ec2Exception mismatch = (Ec2Exception) Ec2Exception.builder()
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("IdempotentParameterMismatch").build())
+                .build();
+
+        assertThat(IdempotentLaunches.isParameterMismatch(mismatch)).isTrue();
+        assertStatus(() -> idempotent.call(SCOPE, KEY, "req", () -> {
+            throw mismatch;
+        }), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void invalidKeyIsRejected() {
+        assertStatus(() -> idempotent.call(SCOPE, "has space", "req", this::launch), HttpStatus.BAD_REQUEST);
+        assertStatus(() -> idempotent.call(SCOPE, "k".repeat(65), "req", this::launch), HttpStatus.BAD_REQUEST);
+        assertThat(launches).hasValue(0);
+    }
+
+    @Test
+    void disabledCacheStillValidatesButAlwaysLaunches() {
+        ReflectionTestUtils.setField(idempotent, "enabled", false);
+
+        assertThat(idempotent.call(SCOPE, KEY, "req", this::launch)).isEqualTo("i-1");
+        assertThat(idempotent.call(SCOPE, KEY, "other", this::launch)).isEqualTo("i-2");
+        assertStatus(() -> idempotent.call(SCOPE, "has space", "req", this::launch), HttpStatus.BAD_REQUEST);
+    }
+
+    private String launch() {
+        return "i-" + launches.incrementAndGet();
+    }
+
+    private static void assertStatus(ThrowingCallable call, HttpStatus status) {
+        assertThatThrownBy(call)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+}
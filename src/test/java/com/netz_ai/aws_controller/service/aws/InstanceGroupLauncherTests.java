@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.dto.aws.CreateEc2Request;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ordering and validation of multi-instance plans in {@link InstanceGroupLauncher#dependencyOrder(List)}.
+ */
+class InstanceGroupLauncherTests {
+
+    @Test
+    void independentGroupsAreAllReturned() {
+        List<InstanceGroupLauncher.Group> ordered = InstanceGroupLauncher.dependencyOrder(List.of(
+                group("web"), group("worker"), group("cache")));
+
+        assertThat(names(ordered)).containsExactlyInAnyOrder("web", "worker", "cache");
+    }
+
+    @Test
+    void dependenciesComeFirst() {
+        List<InstanceGroupLauncher.Group> ordered = InstanceGroupLauncher.dependencyOrder(List.of(
+                group("web", "api"),
+                group("api", "db", "cache"),
+                group("db"),
+                group("cache")));
+
+        List<String> names = names(ordered);
+        assertThat(names).containsExactlyInAnyOrder("web", "api", "db", "cache");
+        assertThat(names.indexOf("db")).isLessThan(names.indexOf("api"));
+        assertThat(names.indexOf("cache")).isLessThan(names.indexOf("api"));
+        assertThat(names.indexOf("api")).isLessThan(names.indexOf("web"));
+    }
+
+    @Test
+    void repeatedDependencyCountsOnce() {
+        List<InstanceGroupLauncher.Group> ordered = InstanceGroupLauncher.dependencyOrder(List.of(
+                group("web", "db", "db"),
+                group("db")));
+
+        assertThat(names(ordered)).containsExactly("db", "web");
+    }
+
+    @Test
+    void rejectsDuplicateNames() {
+        assertInvalid(List.of(group("web"), group("web")), "group name 'web' is used twice");
+    }
+
+    @Test
+    void rejectsUnknownDependency() {
+        assertInvalid(List.of(group("web", "db")), "'web' depends on unknown group 'db'");
+    }
+
+    @Test
+    void rejectsCycles() {
+        assertInvalid(List.of(group("a", "b"), group("b", "c"), group("c", "a"), group("d")),
+                "dependencies form a cycle");
+        assertInvalid(List.of(group("self", "self")), "dependencies form a cycle");
+    }
+
+    private static void assertInvalid(List<InstanceGroupLauncher.Group> groups, String reason) {
+        assertThatThrownBy(() -> InstanceGroupLauncher.dependencyOrder(groups))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+                    assertThat(e.getReason()).isEqualTo("Invalid plan: " + reason);
+                });
+    }
+
+    private static InstanceGroupLauncher.Group group(String name, String... dependsOn) {
+        return new InstanceGroupLauncher.Group(name, new CreateEc2Request(), 1, List.of(dependsOn));
+    }
+
+    private static List<String> names(List<InstanceGroupLauncher.Group> groups) {
+        return groups.stream().map(InstanceGroupLauncher.Group::name).toList();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.properties.AwsProps;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.Ec2AsyncClient;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesRequest;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesResponse;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.InstanceStateName;
+import software.amazon.awssdk.services.ec2.model.Reservation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-state expiry, load coalescing and not-found handling of {@link InstanceStateCache}.
+ */
+class InstanceStateCacheTests {
+    static final Region REGION = Region.EU_CENTRAL_1;
+
+    final Ec2AsyncClient ec2 = mock(Ec2AsyncClient.class);
+    final Map<String, InstanceStateName> states = new ConcurrentHashMap<>();
+    final AtomicInteger describeCalls = new AtomicInteger();
+    // when set, DescribeInstances answers only once the test completes this future
+    volatile CompletableFuture<Void> gate;
+
+    InstanceStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(ec2.describeInstances(any(DescribeInstancesRequest.class))).thenAnswer(inv -> {
+            describeCalls.incrementAndGet();
+            String id = ((DescribeInstancesRequest) inv.getArgument(0)).instanceIds().getFirst();
+            DescribeInstancesResponse.Builder resp = DescribeInstancesResponse.builder();
+            if (states.containsKey(id)) {
+                resp.reservations(Reservation.builder()
+                        .instances(Instance.builder().instanceId(id).state(s -> s.name(states.get(id))).build())
+                        .build());
+            }
+            CompletableFuture<Void> g = gate;
+            return g == null
+                    ? CompletableFuture.completedFuture(resp.build())
+                    : g.thenApply(v -> resp.build());
+        });
+        AwsClientRegistry clients = mock(AwsClientRegistry.class);
+        when(clients.ec2Async(REGION)).thenReturn(ec2);
+        when(clients.defaultRegion()).thenReturn(REGION);
+
+        AwsProps awsProps = new AwsProps();
+        awsProps.getRateLimit().setEnabled(false);
+        awsProps.getCircuitBreaker().setEnabled(false);
+        awsProps.getStateCache().getTtl().put("pending", Duration.ofMillis(100));
+        awsProps.getStateCache().getTtl().put("running", Duration.ofMinutes(1));
+        cache = new InstanceStateCache(clients, mock(InstanceInventory.class),
+                new Ec2Resilience(awsProps, new SimpleMeterRegistry()), awsProps, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void transitionalStateExpiresSoonerThanStableState() throws InterruptedException {
+        states.put("i-pending", InstanceStateName.PENDING);
+        states.put("i-running", InstanceStateName.RUNNING);
+        cache.get("i-pending");
+        cache.get("i-running");
+        assertThat(describeCalls).hasValue(2);
+
+        Thread.sleep(300);
+
+        assertThat(cache.getIfPresent("i-pending")).isNull();
+        assertThat(cache.getIfPresent("i-running")).isNotNull();
+        cache.get("i-pending");
+        cache.get("i-running");
+        assertThat(describeCalls).hasValue(3);
+    }
+
+    @Test
+    void putRestartsExpiryForTheNewState() {
+        states.put("i-1", InstanceStateName.PENDING);
+        Instance pending = cache.get("i-1");
+
+        cache.put(pending.toBuilder().state(s -> s.name(InstanceStateName.RUNNING)).build());
+
+        assertThat(cache.get("i-1").state().name()).isEqualTo(InstanceStateName.RUNNING);
+        assertThat(describeCalls).hasValue(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneDescribe() {
+        states.put("i-1", InstanceStateName.RUNNING);
+        gate = new CompletableFuture<>();
+
+        List<CompletableFuture<Instance>> loads = List.of(
+                cache.getAsync(REGION, "i-1"), cache.getAsync(REGION, "i-1"), cache.getAsync(REGION, "i-1"));
+        // an in-flight load is not a cached value
+        assertThat(cache.getIfPresent("i-1")).isNull();
+        gate.complete(null);
+
+        assertThat(describeCalls).hasValue(1);
+        assertThat(loads).allSatisfy(f -> assertThat(f.join().instanceId()).isEqualTo("i-1"));
+        assertThat(cache.getIfPresent("i-1")).isNotNull();
+    }
+
+    @Test
+    void emptyDescribeIsNotFoundAndNotCached() {
+        assertThatThrownBy(() -> cache.get("i-missing"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+
+        states.put("i-missing", InstanceStateName.PENDING);
+        assertThat(cache.get("i-missing").instanceId()).isEqualTo("i-missing");
+        assertThat(describeCalls).hasValue(2);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.aws;
+
+import com.netz_ai.aws_controller.config.AwsClientRegistry;
+import com.netz_ai.aws_controller.properties.AwsProps;
+import com.netz_ai.aws_controller.service.inventory.InstanceInventory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesRequest;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesResponse;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.InstanceStateName;
+import software.amazon.awssdk.services.ec2.model.Reservation;
+import software.amazon.awssdk.services.ec2.paginators.DescribeInstancesIterable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batching, state matching and timeouts of {@link InstanceStatePoller}, driven tick by tick against a mocked EC2.
+ */
+class InstanceStatePollerTests {
+    static final Region REGION = Region.EU_CENTRAL_1;
+    static final Duration LONG = Duration.ofMinutes(1);
+
+    final Ec2Client ec2 = mock(Ec2Client.class);
+    final Map<String, InstanceStateName> states = new ConcurrentHashMap<>();
+    final List<List<String>> describedBatches = new CopyOnWriteArrayList<>();
+    volatile RuntimeException describeFailure;
+
+    ScheduledExecutorService scheduler;
+    InstanceStatePoller poller;
+
+    @BeforeEach
+    void setUp() {
+        when(ec2.describeInstancesPaginator(any(DescribeInstancesRequest.class)))
+                .thenAnswer(inv -> new DescribeInstancesIterable(ec2, inv.getArgument(0)));
+        when(ec2.describeInstances(any(DescribeInstancesRequest.class))).thenAnswer(inv -> {
+            if (describeFailure != null) {
+                throw describeFailure;
+            }
+            DescribeInstancesRequest req = inv.getArgument(0);
+            List<String> ids = req.filters().getFirst().values();
+            describedBatches.add(ids);
+            List<Instance> found = ids.stream()
+                    .filter(states::containsKey)
+                    .map(id -> Instance.builder().instanceId(id).state(s -> s.name(states.get(id))).build())
+                    .toList();
+            return DescribeInstancesResponse.builder()
+                    .reservations(Reservation.builder().instances(found).build())
+                    .build();
+        });
+        AwsClientRegistry clients = mock(AwsClientRegistry.class);
+        when(clients.ec2(REGION)).thenReturn(ec2);
+        when(clients.defaultRegion()).thenReturn(REGION);
+
+        AwsProps awsProps = new AwsProps();
+        awsProps.getRateLimit().setEnabled(false);
+        awsProps.getCircuitBreaker().setEnabled(false);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        poller = new InstanceStatePoller(clients, scheduler, mock(InstanceInventory.class),
+                mock(InstanceStateCache.class), new Ec2Resilience(awsProps, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(poller, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void oneBatchedDescribePerTickServesAllWaiters() {
+        List<CompletableFuture<Instance>> waits = List.of("i-1", "i-2", "i-3", "i-1").stream()
+                .map(id -> poller.awaitRunning(REGION, id, LONG))
+                .toList();
+        states.put("i-1", InstanceStateName.PENDING);
+        states.put("i-2", InstanceStateName.RUNNING);
+        states.put("i-3", InstanceStateName.PENDING);
+
+        assertThat(poller.tick()).isTrue();
+
+        // the repeated ID is described once; batch-size 2 splits the remaining IDs
+        assertThat(describedBatches).containsExactly(List.of("i-1", "i-2"), List.of("i-3"));
+        assertThat(waits.get(1)).isCompletedWithValueMatching(i -> i.instanceId().equals("i-2"));
+        assertThat(waits.get(0)).isNotDone();
+        assertThat(waits.get(3)).isNotDone();
+
+        states.put("i-1", InstanceStateName.RUNNING);
+        poller.tick();
+
+        assertThat(waits.get(0)).isCompletedWithValueMatching(i -> i.instanceId().equals("i-1"));
+        assertThat(waits.get(3)).isCompletedWithValueMatching(i -> i.instanceId().equals("i-1"));
+        assertThat(waits.get(2)).isNotDone();
+        assertThat(poller.pendingWaits()).isEqualTo(3); // removed on the next tick
+    }
+
+    @Test
+    void failureStateCompletesWith409() {
+        CompletableFuture<Instance> wait = poller.awaitRunning(REGION, "i-1", LONG);
+        states.put("i-1", InstanceStateName.TERMINATED);
+
+        poller.tick();
+
+        assertFailsWith(wait, HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void idleTickDoesNotCallEc2() {
+        assertThat(poller.tick()).isTrue();
+        assertThat(describedBatches).isEmpty();
+    }
+
+    @Test
+    void seenInstanceTimesOutWith408WithoutAnotherTick() {
+        CompletableFuture<Instance> wait = poller.awaitRunning(REGION, "i-1", Duration.ofMillis(200));
+        states.put("i-1", InstanceStateName.PENDING);
+        poller.tick();
+
+        assertFailsWith(wait, HttpStatus.REQUEST_TIMEOUT);
+    }
+
+    @Test
+    void instanceMissingFromAnsweredPollTimesOutWith404() {
+        CompletableFuture<Instance> wait = poller.awaitRunning(REGION, "i-missing", Duration.ofMillis(200));
+        poller.tick();
+
+        assertFailsWith(wait, HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void failingPollsTimeOutWith503() {
+        CompletableFuture<Instance> wait = poller.awaitRunning(REGION, "i-1", Duration.ofMillis(200));
+        describeFailure = SdkClientException.create("connection reset");
+
+        assertThat(poller.tick()).isFalse();
+
+        assertFailsWith(wait, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void waitWithoutAnyPollTimesOutWith408() {
+        CompletableFuture<Instance> wait = poller.awaitRunning(REGION, "i-1", Duration.ofMillis(100));
+
+        assertFailsWith(wait, HttpStatus.REQUEST_TIMEOUT);
+    }
+
+    private static void assertFailsWith(CompletableFuture<Instance> wait, HttpStatus status) {
+        assertThatThrownBy(() -> wait.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+}
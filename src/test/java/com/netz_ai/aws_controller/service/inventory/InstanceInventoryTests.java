@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Transition bookkeeping of the write-behind {@link InstanceInventory}.
+ */
+class InstanceInventoryTests {
+    final JdbcTemplate template = mock(JdbcTemplate.class);
+    final List<String> transitions = new CopyOnWriteArrayList<>();
+    volatile boolean databaseDown;
+
+    InstanceInventory inventory;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(template.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            String sql = inv.getArgument(0);
+            List<Object[]> rows = inv.getArgument(1);
+            if (sql.contains("instance_state_transition")) {
+                rows.forEach(r -> transitions.add(r[0] + ":" + r[1]));
+            }
+            return new int[rows.size()];
+        });
+        ObjectProvider<JdbcTemplate> jdbc = mock(ObjectProvider.class);
+        when(jdbc.getIfAvailable()).thenReturn(template);
+        when(jdbc.getObject()).thenReturn(template);
+
+        inventory = new InstanceInventory(jdbc, new SimpleMeterRegistry(), 100);
+        ReflectionTestUtils.setField(inventory, "enabled", true);
+        ReflectionTestUtils.setField(inventory, "batchSize", 500);
+    }
+
+    @Test
+    void transitionIsWrittenOnlyWhenTheStateChanges() {
+        inventory.recordState("i-1", "pending", "launch");
+        inventory.recordState("i-1", "pending", "poller");
+        inventory.recordState("i-1", "running", "poller");
+        inventory.flush();
+        inventory.recordState("i-1", "running", "describe");
+        inventory.flush();
+
+        assertThat(transitions).containsExactly("i-1:pending", "i-1:running");
+    }
+
+    @Test
+    void failedWriteDoesNotSuppressTheNextTransition() {
+        databaseDown = true;
+        inventory.recordState("i-1", "shutting-down", "terminate");
+        inventory.flush();
+
+        databaseDown = false;
+        inventory.recordState("i-1", "shutting-down", "poller");
+        inventory.flush();
+
+        assertThat(transitions).containsExactly("i-1:shutting-down");
+    }
+}
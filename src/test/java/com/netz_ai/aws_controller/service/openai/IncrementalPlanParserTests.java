@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.openai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Early callbacks of {@link IncrementalPlanParser} while planner JSON arrives in arbitrary chunks.
+ */
+class IncrementalPlanParserTests {
+    final List<Boolean> useAl2023 = new ArrayList<>();
+    final List<String> instanceTypes = new ArrayList<>();
+    final IncrementalPlanParser parser =
+            new IncrementalPlanParser(new ObjectMapper(), useAl2023::add, instanceTypes::add);
+
+    @Test
+    void reportsFieldsAsSoonAsTheirValuesComplete() {
+        parser.feed("{\"useAl2");
+        parser.feed("023\": tr");
+        assertThat(useAl2023).isEmpty();
+
+        parser.feed("ue, \"instanceType\": \"t3.");
+        assertThat(useAl2023).containsExactly(true);
+        assertThat(instanceTypes).isEmpty();
+
+        parser.feed("micro\", \"userData\": \"#!/bin/bash\\nyum -y ");
+        assertThat(instanceTypes).containsExactly("t3.micro");
+
+        parser.feed("update\"}");
+        assertThat(useAl2023).containsExactly(true);
+        assertThat(instanceTypes).containsExactly("t3.micro");
+        assertThat(parser.text())
+                .isEqualTo("{\"useAl2023\": true, \"instanceType\": \"t3.micro\", "
+                        + "\"userData\": \"#!/bin/bash\\nyum -y update\"}");
+    }
+
+    @Test
+    void skipsTextBeforeTheObject() {
+        parser.feed("Here is the plan:\n```json\n");
+        parser.feed("  {\"useAl2023\": false}");
+
+        assertThat(useAl2023).containsExactly(false);
+        assertThat(parser.text()).isEqualTo("{\"useAl2023\": false}");
+    }
+
+    @Test
+    void ignoresNestedFields() {
+        parser.feed("{\"tags\": {\"instanceType\": \"x1e.32xlarge\", \"useAl2023\": true}, "
+                + "\"securityGroups\": [\"instanceType\"], \"instanceType\": \"t3.small\"}");
+
+        assertThat(useAl2023).isEmpty();
+        assertThat(instanceTypes).containsExactly("t3.small");
+    }
+
+    @Test
+    void ignoresBlankInstanceType() {
+        parser.feed("{\"instanceType\": \" \", \"useAl2023\": true}");
+
+        assertThat(instanceTypes).isEmpty();
+        assertThat(useAl2023).containsExactly(true);
+    }
+
+    @Test
+    void stopsAfterTheTopLevelObject() {
+        parser.feed("{\"useAl2023\": true}\n```\n");
+        parser.feed("{\"useAl2023\": false, \"instanceType\": \"t3.large\"}");
+
+        assertThat(useAl2023).containsExactly(true);
+        assertThat(instanceTypes).isEmpty();
+    }
+
+    @Test
+    void malformedOutputStopsCallbacksButKeepsText() {
+        parser.feed("{\"useAl2023\": tru}");
+        parser.feed(", \"instanceType\": \"t3.micro\"}");
+
+        assertThat(useAl2023).isEmpty();
+        assertThat(instanceTypes).isEmpty();
+        assertThat(parser.text()).isEqualTo("{\"useAl2023\": tru}, \"instanceType\": \"t3.micro\"}");
+    }
+}
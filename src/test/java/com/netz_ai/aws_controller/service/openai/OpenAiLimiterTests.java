@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2025. Netz AI GmbH <https://netz-ai.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netz_ai.aws_controller.service.openai;
+
+import com.netz_ai.aws_controller.properties.OpenAiProperties;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Budget, refill and usage correction of {@link OpenAiLimiter.TokenBucket}, and permit bookkeeping of
+ * {@link OpenAiLimiter#acquire(int)}.
+ */
+class OpenAiLimiterTests {
+
+    @Test
+    void zeroRateIsUnlimited() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(0);
+
+        for (int i = 0; i < 1000; i++) {
+            bucket.take(1_000_000, System.nanoTime());
+        }
+        bucket.adjust(1_000_000);
+        bucket.take(1_000_000, System.nanoTime());
+    }
+
+    @Test
+    void fullBucketServesItsCapacityWithoutWaiting() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(100);
+
+        bucket.take(60, System.nanoTime());
+        bucket.take(40, System.nanoTime());
+
+        assertExhausted(() -> bucket.take(1, System.nanoTime()));
+    }
+
+    @Test
+    void waitsForRefillWithinDeadline() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(6000); // 100 per second
+        bucket.take(6000, System.nanoTime());
+
+        long start = System.nanoTime();
+        bucket.take(10, start + TimeUnit.SECONDS.toNanos(5));
+        long waited = System.nanoTime() - start;
+
+        assertThat(waited).isBetween(TimeUnit.MILLISECONDS.toNanos(80), TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void failsFastWhenRefillWouldMissDeadline() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(60); // 1 per second
+        bucket.take(60, System.nanoTime());
+
+        long start = System.nanoTime();
+        assertExhausted(() -> bucket.take(10, start + TimeUnit.SECONDS.toNanos(5)));
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void oversizedRequestNeedsOnlyAFullBucketAndIsPaidBackLater() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(100);
+
+        bucket.take(150, System.nanoTime());
+
+        // the balance is now -50: even a single token needs more than 30 seconds of refill
+        assertExhausted(() -> bucket.take(1, System.nanoTime() + TimeUnit.SECONDS.toNanos(30)));
+    }
+
+    @Test
+    void overestimateIsReturned() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(100);
+        bucket.take(100, System.nanoTime());
+
+        bucket.adjust(-40);
+
+        bucket.take(40, System.nanoTime());
+        assertExhausted(() -> bucket.take(1, System.nanoTime()));
+    }
+
+    @Test
+    void underestimateIsCharged() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(100);
+
+        bucket.adjust(50);
+
+        assertExhausted(() -> bucket.take(60, System.nanoTime()));
+        bucket.take(50, System.nanoTime());
+    }
+
+    @Test
+    void returnedTokensAreCappedAtCapacity() throws InterruptedException {
+        OpenAiLimiter.TokenBucket bucket = new OpenAiLimiter.TokenBucket(100);
+
+        bucket.adjust(-1000);
+
+        bucket.take(100, System.nanoTime());
+        assertExhausted(() -> bucket.take(1, System.nanoTime()));
+    }
+
+    @Test
+    void rejectedAcquireReturnsRequestUnitAndPermit() {
+        OpenAiLimiter limiter = limiter(2, 2, 60, Duration.ofMillis(100));
+        OpenAiLimiter.Permit first = limiter.acquire(240); // 60 estimated tokens: the whole token budget
+
+        assertExhausted(() -> limiter.acquire(4));
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        first.recordUsage(0);
+        first.close();
+        // the second request unit is still there because the rejected call gave it back
+        try (OpenAiLimiter.Permit second = limiter.acquire(4)) {
+            assertThat(limiter.inFlight()).isEqualTo(1);
+        }
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void interruptedAcquireReleasesPermit() throws InterruptedException {
+        OpenAiLimiter limiter = limiter(1, 100, 60, Duration.ofSeconds(30));
+        limiter.acquire(240).close(); // drain the token budget
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire(40);
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        waiter.start();
+        Thread.sleep(200);
+        waiter.interrupt();
+        waiter.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(failure.get()).isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Interrupted waiting for an OpenAI permit");
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.queued()).isZero();
+    }
+
+    private static OpenAiLimiter limiter(int maxConcurrent, int requestsPerMinute, int tokensPerMinute,
+                                         Duration maxWait) {
+        OpenAiProperties properties = new OpenAiProperties();
+        OpenAiProperties.Limiter props = properties.getLimiter();
+        props.setMaxConcurrent(maxConcurrent);
+        props.setRequestsPerMinute(requestsPerMinute);
+        props.setTokensPerMinute(tokensPerMinute);
+        props.setEstimatedCompletionTokens(0);
+        props.setMaxWait(maxWait);
+        return new OpenAiLimiter(properties);
+    }
+
+    private static void assertExhausted(ThrowingCallable take) {
+        assertThatThrownBy(take)
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getReason()).isEqualTo("OpenAI rate budget exhausted");
+                });
+    }
+}